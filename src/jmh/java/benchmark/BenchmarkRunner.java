@@ -0,0 +1,41 @@
+package benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs the selected benchmarks once per thread count in {@code jmh.threads} (default 1 to 64,
+ * doubling), writing each run to {@code results-<threads>t.json} under {@code jmh.resultsDir}.
+ * Arguments are standard JMH options, e.g. {@code GetBenchmark -prof gc -prof stack}.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Path resultsDir = Paths.get(System.getProperty("jmh.resultsDir", "build/reports/jmh"));
+        Files.createDirectories(resultsDir);
+
+        for(String threads : System.getProperty("jmh.threads", "1,2,4,8,16,32,64").split(",")) {
+            int count = Integer.parseInt(threads.trim());
+            if(count <= 0) {
+                throw new IllegalArgumentException("Thread count must be positive: " + count);
+            }
+            Options options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(count)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultsDir.resolve("results-" + count + "t.json").toString())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
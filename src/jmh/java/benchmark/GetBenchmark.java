@@ -0,0 +1,63 @@
+package benchmark;
+
+import config.CacheConfig;
+import core.LRUCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/** {@link LRUCache#get} on a full cache, for keys that are all present and keys that never are. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GetBenchmark {
+
+    static final int CAPACITY = 1 << 16;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    public KeyDistribution distribution;
+
+    LRUCache<Integer, Integer> cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new LRUCache<>(CacheConfig.<Integer, Integer>builder()
+                .capacity(CAPACITY)
+                .ttl(1, TimeUnit.HOURS)
+                .build());
+        for(int i = 0; i < CAPACITY; i++) {
+            cache.put(i, i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        KeyCursor present;
+        KeyCursor absent;
+
+        @Setup(Level.Trial)
+        public void setUp(GetBenchmark benchmark) {
+            present = new KeyCursor(benchmark.distribution, CAPACITY);
+            absent = new KeyCursor(benchmark.distribution, CAPACITY, CAPACITY);
+        }
+    }
+
+    @Benchmark
+    public Optional<Integer> getHit(ThreadKeys keys) {
+        return cache.get(keys.present.next());
+    }
+
+    @Benchmark
+    public Optional<Integer> getMiss(ThreadKeys keys) {
+        return cache.get(keys.absent.next());
+    }
+}
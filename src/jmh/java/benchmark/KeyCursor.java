@@ -0,0 +1,32 @@
+package benchmark;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Cycles through one thread's sample of keys. Not thread-safe; each benchmark thread owns one. */
+final class KeyCursor {
+
+    static final int SAMPLE_SIZE = 1 << 16;
+    private static final AtomicLong SEEDS = new AtomicLong();
+
+    private final Integer[] keys;
+    private int index;
+
+    KeyCursor(KeyDistribution distribution, int keySpace) {
+        this(distribution, keySpace, 0);
+    }
+
+    /** Keys are drawn from {@code [offset, offset + keySpace)}. */
+    KeyCursor(KeyDistribution distribution, int keySpace, int offset) {
+        // a distinct seed per thread, so threads don't walk the same keys in lockstep
+        this.keys = distribution.sample(SAMPLE_SIZE, keySpace, SEEDS.incrementAndGet());
+        if(offset != 0) {
+            for(int i = 0; i < keys.length; i++) {
+                keys[i] = keys[i] + offset;
+            }
+        }
+    }
+
+    Integer next() {
+        return keys[index++ & (SAMPLE_SIZE - 1)];
+    }
+}
@@ -0,0 +1,63 @@
+package benchmark;
+
+import java.util.SplittableRandom;
+
+/** How benchmark keys are drawn from {@code [0, keySpace)}. */
+public enum KeyDistribution {
+
+    /** Every key equally likely. */
+    UNIFORM {
+        @Override
+        Integer[] sample(int count, int keySpace, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            Integer[] keys = new Integer[count];
+            for(int i = 0; i < count; i++) {
+                keys[i] = random.nextInt(keySpace);
+            }
+            return keys;
+        }
+    },
+
+    /** Zipf with exponent 0.99, so a few keys take most of the traffic; key 0 is the hottest. */
+    ZIPFIAN {
+        @Override
+        Integer[] sample(int count, int keySpace, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            // Gray et al., "Quickly Generating Billion-Record Synthetic Databases"
+            double zetaN = zeta(keySpace);
+            double alpha = 1.0 / (1.0 - THETA);
+            double eta = (1.0 - Math.pow(2.0 / keySpace, 1.0 - THETA)) / (1.0 - zeta(2) / zetaN);
+            Integer[] keys = new Integer[count];
+            for(int i = 0; i < count; i++) {
+                double u = random.nextDouble();
+                double uz = u * zetaN;
+                int key;
+                if(uz < 1.0) {
+                    key = 0;
+                } else if(uz < 1.0 + Math.pow(0.5, THETA)) {
+                    key = 1;
+                } else {
+                    key = (int) (keySpace * Math.pow(eta * u - eta + 1.0, alpha));
+                }
+                keys[i] = Math.min(key, keySpace - 1);
+            }
+            return keys;
+        }
+    };
+
+    private static final double THETA = 0.99;
+
+    /**
+     * Returns {@code count} keys, boxed up front so the measured loop doesn't allocate them.
+     * The same seed gives the same keys.
+     */
+    abstract Integer[] sample(int count, int keySpace, long seed);
+
+    private static double zeta(int n) {
+        double sum = 0.0;
+        for(int i = 1; i <= n; i++) {
+            sum += 1.0 / Math.pow(i, THETA);
+        }
+        return sum;
+    }
+}
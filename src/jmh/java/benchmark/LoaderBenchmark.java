@@ -0,0 +1,93 @@
+package benchmark;
+
+import config.CacheConfig;
+import core.LRUCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads through a loader on a small cache over a large key space, so uniform keys almost always
+ * miss and load; Zipfian keys mostly hit their hot set. The loaders return at once, so this
+ * measures the cache's own miss path: load coalescing, the insert and the eviction it causes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoaderBenchmark {
+
+    static final int CAPACITY = 1 << 10;
+    static final int KEY_SPACE = 1 << 20;
+    static final int BATCH_SIZE = 16;
+    static final int BATCHES = 1024;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    public KeyDistribution distribution;
+
+    LRUCache<Integer, Integer> cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new LRUCache<>(CacheConfig.<Integer, Integer>builder()
+                .capacity(CAPACITY)
+                .ttl(1, TimeUnit.HOURS)
+                .loader(key -> key)
+                .bulkLoader(keys -> {
+                    Map<Integer, Integer> loaded = new HashMap<>();
+                    for(Integer key : keys) {
+                        loaded.put(key, key);
+                    }
+                    return loaded;
+                })
+                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        KeyCursor keys;
+        List<List<Integer>> batches;
+        int batch;
+
+        @Setup(Level.Trial)
+        public void setUp(LoaderBenchmark benchmark) {
+            keys = new KeyCursor(benchmark.distribution, KEY_SPACE);
+            KeyCursor batchKeys = new KeyCursor(benchmark.distribution, KEY_SPACE);
+            batches = new ArrayList<>(BATCHES);
+            for(int i = 0; i < BATCHES; i++) {
+                List<Integer> batchOfKeys = new ArrayList<>(BATCH_SIZE);
+                for(int j = 0; j < BATCH_SIZE; j++) {
+                    batchOfKeys.add(batchKeys.next());
+                }
+                batches.add(batchOfKeys);
+            }
+        }
+
+        List<Integer> nextBatch() {
+            return batches.get(batch++ & (BATCHES - 1));
+        }
+    }
+
+    @Benchmark
+    public Optional<Integer> getWithLoader(ThreadKeys keys) {
+        return cache.get(keys.keys.next());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Map<Integer, Integer> getAllWithBulkLoader(ThreadKeys keys) {
+        return cache.getAll(keys.nextBatch());
+    }
+}
@@ -0,0 +1,78 @@
+package benchmark;
+
+import config.CacheConfig;
+import core.LRUCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 90% reads, 10% writes on a full cache, with keys drawn from twice its capacity so reads
+ * both hit and miss and writes evict.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MixedBenchmark {
+
+    static final int CAPACITY = 1 << 16;
+    static final int KEY_SPACE = CAPACITY * 2;
+    static final int WRITE_PERCENT = 10;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    public KeyDistribution distribution;
+
+    LRUCache<Integer, Integer> cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new LRUCache<>(CacheConfig.<Integer, Integer>builder()
+                .capacity(CAPACITY)
+                .ttl(1, TimeUnit.HOURS)
+                .build());
+        for(int i = 0; i < CAPACITY; i++) {
+            cache.put(i, i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadOps {
+        KeyCursor keys;
+        boolean[] writes;
+        int index;
+
+        @Setup(Level.Trial)
+        public void setUp(MixedBenchmark benchmark) {
+            keys = new KeyCursor(benchmark.distribution, KEY_SPACE);
+            // decided up front so the random draw isn't part of the measurement
+            SplittableRandom random = new SplittableRandom(KeyCursor.SAMPLE_SIZE);
+            writes = new boolean[KeyCursor.SAMPLE_SIZE];
+            for(int i = 0; i < writes.length; i++) {
+                writes[i] = random.nextInt(100) < WRITE_PERCENT;
+            }
+        }
+
+        boolean nextIsWrite() {
+            return writes[index++ & (KeyCursor.SAMPLE_SIZE - 1)];
+        }
+    }
+
+    @Benchmark
+    public Object readWrite(ThreadOps ops) {
+        Integer key = ops.keys.next();
+        if(ops.nextIsWrite()) {
+            cache.put(key, key);
+            return key;
+        }
+        return cache.get(key);
+    }
+}
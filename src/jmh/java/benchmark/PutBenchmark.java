@@ -0,0 +1,87 @@
+package benchmark;
+
+import config.CacheConfig;
+import core.LRUCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes to a full cache over a key space four times its capacity, so most puts insert a new
+ * key and evict the LRU entry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PutBenchmark {
+
+    static final int CAPACITY = 1 << 16;
+    static final int KEY_SPACE = CAPACITY * 4;
+    static final int BATCH_SIZE = 64;
+    static final int BATCHES = 256;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    public KeyDistribution distribution;
+
+    LRUCache<Integer, Integer> cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new LRUCache<>(CacheConfig.<Integer, Integer>builder()
+                .capacity(CAPACITY)
+                .ttl(1, TimeUnit.HOURS)
+                .build());
+        for(int i = 0; i < CAPACITY; i++) {
+            cache.put(i, i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        KeyCursor keys;
+        Map<Integer, Integer>[] batches;
+        int batch;
+
+        @Setup(Level.Trial)
+        @SuppressWarnings("unchecked")
+        public void setUp(PutBenchmark benchmark) {
+            keys = new KeyCursor(benchmark.distribution, KEY_SPACE);
+            KeyCursor batchKeys = new KeyCursor(benchmark.distribution, KEY_SPACE);
+            batches = new Map[BATCHES];
+            for(int i = 0; i < BATCHES; i++) {
+                Map<Integer, Integer> entries = new HashMap<>();
+                while(entries.size() < BATCH_SIZE) {
+                    Integer key = batchKeys.next();
+                    entries.put(key, key);
+                }
+                batches[i] = entries;
+            }
+        }
+
+        Map<Integer, Integer> nextBatch() {
+            return batches[batch++ & (BATCHES - 1)];
+        }
+    }
+
+    @Benchmark
+    public void putWithEviction(ThreadKeys keys) {
+        Integer key = keys.keys.next();
+        cache.put(key, key);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void putAll(ThreadKeys keys) {
+        cache.putAll(keys.nextBatch());
+    }
+}
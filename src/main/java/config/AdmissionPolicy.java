@@ -0,0 +1,11 @@
+package config;
+
+public enum AdmissionPolicy {
+    /** Every new entry is admitted and the least recently used entry is evicted. */
+    ALWAYS,
+    /**
+     * W-TinyLFU: new entries enter a small LRU window; when they leave it they only displace
+     * the main region's LRU victim if a frequency sketch says they are accessed more often.
+     */
+    WINDOW_TINY_LFU
+}
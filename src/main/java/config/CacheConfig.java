@@ -1,7 +1,14 @@
 package config;
 
+import expiry.Expiry;
+import expiry.Ticker;
+import listener.RemovalListener;
+import loader.BulkCacheLoader;
 import loader.CacheLoader;
 
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
 public final class CacheConfig<K,V> {
@@ -10,36 +17,148 @@ public final class CacheConfig<K,V> {
     public static final long DEFAULT_CLEANUP_INTERVAL = 60L; // 1 minute
     public static final boolean DEFAULT_RECORD_STATS = true;
 
+    private final String name;
     private final int capacity;
-    private final long ttlSeconds;
-    private final long cleanupIntervalSeconds;
+    private final long maximumWeight;
+    private final long maximumEntryWeight;
+    private final Weigher<K,V> weigher;
+    private final Serializer<V> serializer;
+    private final long offHeapMaxBytes;
+    private final long ttlNanos;
+    private final long cleanupIntervalNanos;
+    private final long refreshAfterWriteNanos;
+    private final long expireAfterAccessNanos;
     private final boolean recordStats;
+    private final AdmissionPolicy admissionPolicy;
+    private final Executor executor;
+    private final Expiry<K,V> expiry;
+    private final Ticker ticker;
     private CacheLoader<K,V> cacheLoader;
+    private final BulkCacheLoader<K,V> bulkLoader;
+    private final RemovalListener<K,V> removalListener;
 
     private CacheConfig(Builder<K,V> builder) {
+        this.name = builder.name;
         this.capacity = builder.capacity;
-        this.ttlSeconds = builder.ttlSeconds;
-        this.cleanupIntervalSeconds = builder.cleanupIntervalSeconds;
+        this.maximumWeight = builder.maximumWeight;
+        this.maximumEntryWeight = builder.maximumEntryWeight != 0 ? builder.maximumEntryWeight : builder.maximumWeight;
+        this.weigher = builder.weigher;
+        this.serializer = builder.serializer;
+        this.offHeapMaxBytes = builder.offHeapMaxBytes;
+        this.ttlNanos = builder.ttlNanos;
+        this.cleanupIntervalNanos = builder.cleanupIntervalNanos;
+        this.refreshAfterWriteNanos = builder.refreshAfterWriteNanos;
+        this.expireAfterAccessNanos = builder.expireAfterAccessNanos;
         this.recordStats = builder.recordStats;
+        this.admissionPolicy = builder.admissionPolicy;
+        this.executor = builder.executor;
+        this.expiry = builder.expiry;
+        this.ticker = builder.ticker;
         this.cacheLoader = builder.cacheLoader;
+        this.bulkLoader = builder.bulkLoader;
+        this.removalListener = builder.removalListener;
+    }
+
+    /** Returns the name the cache is registered under in JMX, or null for a generated one. */
+    public String getName() {
+        return name;
     }
 
     public int getCapacity() {
         return capacity;
     }
 
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /** Heaviest entry the cache admits; the whole {@link #getMaximumWeight()} unless lowered. */
+    public long getMaximumEntryWeight() {
+        return maximumEntryWeight;
+    }
+
+    public Weigher<K,V> getWeigher() {
+        return weigher;
+    }
+
+    /** True when the cache is bounded by total entry weight rather than by entry count. */
+    public boolean isWeighted() {
+        return weigher != null;
+    }
+
+    public Serializer<V> getSerializer() {
+        return serializer;
+    }
+
+    public long getOffHeapMaxBytes() {
+        return offHeapMaxBytes;
+    }
+
+    /** True when values are serialized into direct memory instead of kept on the heap. */
+    public boolean isOffHeap() {
+        return serializer != null;
+    }
+
+    public long getTtlNanos() {
+        return ttlNanos;
+    }
+
+    /** TTL truncated to whole seconds; use {@link #getTtlNanos()} for sub-second TTLs. */
     public long getTtlSeconds() {
-        return ttlSeconds;
+        return TimeUnit.NANOSECONDS.toSeconds(ttlNanos);
+    }
+
+    public long getCleanupIntervalNanos() {
+        return cleanupIntervalNanos;
     }
 
+    /** Cleanup interval truncated to whole seconds; use {@link #getCleanupIntervalNanos()}. */
     public long getCleanupIntervalSeconds() {
-        return cleanupIntervalSeconds;
+        return TimeUnit.NANOSECONDS.toSeconds(cleanupIntervalNanos);
+    }
+
+    public long getRefreshAfterWriteNanos() {
+        return refreshAfterWriteNanos;
+    }
+
+    public boolean isRefreshAfterWrite() {
+        return refreshAfterWriteNanos > 0;
+    }
+
+    public long getExpireAfterAccessNanos() {
+        return expireAfterAccessNanos;
+    }
+
+    /** True when entries are also dropped after going unread and unwritten for a while. */
+    public boolean isExpireAfterAccess() {
+        return expireAfterAccessNanos > 0;
     }
 
     public boolean isRecordStats() {
         return recordStats;
     }
 
+    public AdmissionPolicy getAdmissionPolicy() {
+        return admissionPolicy;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /** Returns the per-entry expiry, or null when every entry uses the TTL. */
+    public Expiry<K,V> getExpiry() {
+        return expiry;
+    }
+
+    public boolean hasExpiry() {
+        return expiry != null;
+    }
+
+    public Ticker getTicker() {
+        return ticker;
+    }
+
     public CacheLoader<K,V> getCacheLoader() {
         return cacheLoader;
     }
@@ -48,20 +167,59 @@ public final class CacheConfig<K,V> {
         return cacheLoader != null;
     }
 
+    public BulkCacheLoader<K,V> getBulkLoader() {
+        return bulkLoader;
+    }
+
+    public boolean hasBulkLoader() {
+        return bulkLoader != null;
+    }
+
+    public RemovalListener<K,V> getRemovalListener() {
+        return removalListener;
+    }
+
+    public boolean hasRemovalListener() {
+        return removalListener != null;
+    }
+
     public static <K,V> Builder<K,V> builder() {
         return new Builder<>();
     }
 
     public static final class Builder<K,V> {
 
+        private String name;
         private int capacity = DEFAULT_CAPACITY;
-        private long ttlSeconds = DEFAULT_TTL_SECONDS;
-        private long cleanupIntervalSeconds = DEFAULT_CLEANUP_INTERVAL;
+        private long maximumWeight;
+        private long maximumEntryWeight;
+        private Weigher<K,V> weigher;
+        private Serializer<V> serializer;
+        private long offHeapMaxBytes;
+        private long ttlNanos = TimeUnit.SECONDS.toNanos(DEFAULT_TTL_SECONDS);
+        private long cleanupIntervalNanos = TimeUnit.SECONDS.toNanos(DEFAULT_CLEANUP_INTERVAL);
+        private long refreshAfterWriteNanos;
+        private long expireAfterAccessNanos;
         private boolean recordStats = DEFAULT_RECORD_STATS;
+        private AdmissionPolicy admissionPolicy = AdmissionPolicy.ALWAYS;
+        private Executor executor = ForkJoinPool.commonPool();
+        private Expiry<K,V> expiry;
+        private Ticker ticker = Ticker.system();
         private CacheLoader<K,V> cacheLoader;
+        private BulkCacheLoader<K,V> bulkLoader;
+        private RemovalListener<K,V> removalListener;
 
         private Builder() {}
 
+        /**
+         * Names the cache's JMX MBean, {@code lru.cache:type=LRUCache,name="<name>"}; the name is
+         * quoted, so it may contain any character.
+         */
+        public Builder<K,V> name(String name) {
+            this.name = Objects.requireNonNull(name, "name must not be null");
+            return this;
+        }
+
         public Builder<K,V> capacity(int capacity) {
             if(capacity <= 0) {
                 throw new IllegalArgumentException("Capacity must be positive");
@@ -70,12 +228,58 @@ public final class CacheConfig<K,V> {
             return this;
         }
 
+        /**
+         * Bounds the cache by the total weight of its entries instead of their count. Requires
+         * a {@link #weigher(Weigher)}; entries heavier than the whole budget are not cached.
+         */
+        public Builder<K,V> maximumWeight(long maximumWeight) {
+            if(maximumWeight <= 0) {
+                throw new IllegalArgumentException("Maximum weight must be positive");
+            }
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
+        /**
+         * Refuses entries heavier than {@code maximumEntryWeight}, which defaults to the whole
+         * {@link #maximumWeight(long)}. A {@code SegmentedLRUCache} splits the budget between its
+         * segments and uses only as many as keep every segment's share at least this heavy, so
+         * lowering it is what lets a weighted cache use more than one segment.
+         */
+        public Builder<K,V> maximumEntryWeight(long maximumEntryWeight) {
+            if(maximumEntryWeight <= 0) {
+                throw new IllegalArgumentException("Maximum entry weight must be positive");
+            }
+            this.maximumEntryWeight = maximumEntryWeight;
+            return this;
+        }
+
+        public Builder<K,V> weigher(Weigher<K,V> weigher) {
+            this.weigher = Objects.requireNonNull(weigher, "weigher must not be null");
+            return this;
+        }
+
+        /**
+         * Keeps values off-heap: each value is serialized into slab-allocated direct memory of at
+         * most {@code maxBytes} in total, and deserialized again on every read. The entry count
+         * and weight bounds still apply; when the memory is full, LRU entries are evicted until
+         * the new value fits. Values larger than a slab page (1 MiB) are not cached.
+         */
+        public Builder<K,V> offHeap(Serializer<V> serializer, long maxBytes) {
+            if(maxBytes <= 0) {
+                throw new IllegalArgumentException("Off-heap size must be positive");
+            }
+            this.serializer = Objects.requireNonNull(serializer, "serializer must not be null");
+            this.offHeapMaxBytes = maxBytes;
+            return this;
+        }
+
         public Builder<K,V> ttl(long duration, TimeUnit unit) {
             if(duration <= 0) {
                 throw new IllegalArgumentException("TTL duration must be positive");
             }
 
-            this.ttlSeconds = unit.toSeconds(duration);
+            this.ttlNanos = unit.toNanos(duration);
             return this;
         }
 
@@ -83,11 +287,40 @@ public final class CacheConfig<K,V> {
             return ttl(ttlSeconds, TimeUnit.SECONDS);
         }
 
-        public Builder<K,V> cleanupIntervalSeconds(long cleanupIntervalSeconds) {
-            if(cleanupIntervalSeconds <= 0) {
+        public Builder<K,V> cleanupInterval(long interval, TimeUnit unit) {
+            if(interval <= 0) {
                 throw new IllegalArgumentException("Cleanup interval must be positive");
             }
-            this.cleanupIntervalSeconds = cleanupIntervalSeconds;
+            this.cleanupIntervalNanos = unit.toNanos(interval);
+            return this;
+        }
+
+        public Builder<K,V> cleanupIntervalSeconds(long cleanupIntervalSeconds) {
+            return cleanupInterval(cleanupIntervalSeconds, TimeUnit.SECONDS);
+        }
+
+        /**
+         * Once {@code duration} has passed since an entry was written, the next read returns the
+         * current value and reloads it in the background on the configured executor. A failed
+         * reload keeps the current value until the TTL expires it. Requires a loader.
+         */
+        public Builder<K,V> refreshAfterWrite(long duration, TimeUnit unit) {
+            if(duration <= 0) {
+                throw new IllegalArgumentException("Refresh duration must be positive");
+            }
+            this.refreshAfterWriteNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Drops entries that have not been read or written for {@code duration}. Applies on top
+         * of the TTL or {@link #expiry(Expiry)}, whichever deadline comes first.
+         */
+        public Builder<K,V> expireAfterAccess(long duration, TimeUnit unit) {
+            if(duration <= 0) {
+                throw new IllegalArgumentException("Expire-after-access duration must be positive");
+            }
+            this.expireAfterAccessNanos = unit.toNanos(duration);
             return this;
         }
 
@@ -96,12 +329,59 @@ public final class CacheConfig<K,V> {
             return this;
         }
 
+        public Builder<K,V> admissionPolicy(AdmissionPolicy admissionPolicy) {
+            this.admissionPolicy = Objects.requireNonNull(admissionPolicy, "admissionPolicy must not be null");
+            return this;
+        }
+
+        public Builder<K,V> executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "executor must not be null");
+            return this;
+        }
+
+        /** Computes a lifetime per entry on create, update and read. Overrides the TTL. */
+        public Builder<K,V> expiry(Expiry<K,V> expiry) {
+            this.expiry = Objects.requireNonNull(expiry, "expiry must not be null");
+            return this;
+        }
+
+        /** Time source for expiry, refresh and access times; {@link Ticker#cached()} avoids clock reads on hits. */
+        public Builder<K,V> ticker(Ticker ticker) {
+            this.ticker = Objects.requireNonNull(ticker, "ticker must not be null");
+            return this;
+        }
+
         public Builder<K,V> loader(CacheLoader<K,V> cacheLoader) {
             this.cacheLoader = cacheLoader;
             return this;
         }
 
+        public Builder<K,V> bulkLoader(BulkCacheLoader<K,V> bulkLoader) {
+            this.bulkLoader = bulkLoader;
+            return this;
+        }
+
+        /**
+         * Notifies {@code removalListener} of every entry that leaves the cache, with the cause.
+         * Delivered after the cache lock is released, on the configured
+         * {@link #executor(Executor)}, or on the writing thread itself while the bounded backlog
+         * of notifications is full.
+         */
+        public Builder<K,V> removalListener(RemovalListener<K,V> removalListener) {
+            this.removalListener = Objects.requireNonNull(removalListener, "removalListener must not be null");
+            return this;
+        }
+
         public CacheConfig<K,V> build() {
+            if((weigher == null) != (maximumWeight == 0)) {
+                throw new IllegalArgumentException("maximumWeight and weigher must be set together");
+            }
+            if(maximumEntryWeight != 0 && (weigher == null || maximumEntryWeight > maximumWeight)) {
+                throw new IllegalArgumentException("maximumEntryWeight requires a weigher and must not exceed maximumWeight");
+            }
+            if(refreshAfterWriteNanos > 0 && cacheLoader == null) {
+                throw new IllegalArgumentException("refreshAfterWrite requires a loader");
+            }
             return new CacheConfig<>(this);
         }
     }
@@ -109,11 +389,21 @@ public final class CacheConfig<K,V> {
     @Override
     public String toString() {
         return "CacheConfig{" +
-                "capacity=" + capacity +
-                ", ttlSeconds=" + ttlSeconds +
-                ", cleanupIntervalSeconds=" + cleanupIntervalSeconds +
+                "name=" + name +
+                ", capacity=" + capacity +
+                ", maximumWeight=" + maximumWeight +
+                ", maximumEntryWeight=" + maximumEntryWeight +
+                ", offHeapMaxBytes=" + offHeapMaxBytes +
+                ", ttlNanos=" + ttlNanos +
+                ", cleanupIntervalNanos=" + cleanupIntervalNanos +
+                ", refreshAfterWriteNanos=" + refreshAfterWriteNanos +
+                ", expireAfterAccessNanos=" + expireAfterAccessNanos +
                 ", recordStats=" + recordStats +
+                ", admissionPolicy=" + admissionPolicy +
+                ", hasExpiry=" + hasExpiry() +
                 ", hasLoader=" + hasLoader() +
+                ", hasBulkLoader=" + hasBulkLoader() +
+                ", hasRemovalListener=" + hasRemovalListener() +
                 '}';
     }
 }
@@ -0,0 +1,15 @@
+package config;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts values to and from bytes for caches that keep their values off-heap. See
+ * {@link CacheConfig.Builder#offHeap(Serializer, long)}.
+ */
+public interface Serializer<V> {
+
+    byte[] serialize(V value);
+
+    /** Reads a value from {@code bytes}, which holds exactly what {@link #serialize} produced. */
+    V deserialize(ByteBuffer bytes);
+}
@@ -0,0 +1,11 @@
+package config;
+
+/**
+ * Computes the weight of an entry, e.g. its approximate size in bytes, for caches bounded by
+ * {@link CacheConfig.Builder#maximumWeight(long)}. Weights must not be negative and are
+ * computed once per write, so they should not depend on mutable state of the value.
+ */
+@FunctionalInterface
+public interface Weigher<K,V> {
+    int weigh(K key, V value);
+}
@@ -0,0 +1,67 @@
+package core;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Intrusive doubly-linked list of cache entries between two sentinels.
+ * Not thread safe; callers hold the cache write lock.
+ */
+final class AccessOrderDeque<K, V> {
+
+    private final CacheEntry<K, V> head = new CacheEntry<>(null, null, 0L);
+    private final CacheEntry<K, V> tail = new CacheEntry<>(null, null, 0L);
+    private int size;
+
+    AccessOrderDeque() {
+        head.next = tail;
+        tail.prev = head;
+    }
+
+    void addFirst(CacheEntry<K, V> entry) {
+        entry.prev = head;
+        entry.next = head.next;
+        head.next.prev = entry;
+        head.next = entry;
+        size++;
+    }
+
+    void remove(CacheEntry<K, V> entry) {
+        entry.prev.next = entry.next;
+        entry.next.prev = entry.prev;
+        entry.prev = null;
+        entry.next = null;
+        size--;
+    }
+
+    void moveToFront(CacheEntry<K, V> entry) {
+        remove(entry);
+        addFirst(entry);
+    }
+
+    /** Returns the least recently used entry, or null if empty. */
+    CacheEntry<K, V> peekLast() {
+        return tail.prev == head ? null : tail.prev;
+    }
+
+    /**
+     * Hands entries from the least recently used end to {@code action} for as long as
+     * {@code condition} holds. The action must unlink the entry from this deque.
+     */
+    void removeTailWhile(Predicate<CacheEntry<K, V>> condition, Consumer<CacheEntry<K, V>> action) {
+        CacheEntry<K, V> entry;
+        while((entry = peekLast()) != null && condition.test(entry)) {
+            action.accept(entry);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        head.next = tail;
+        tail.prev = head;
+        size = 0;
+    }
+}
@@ -0,0 +1,24 @@
+package core;
+
+import stats.CacheStats;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncCache<K,V> {
+
+    /**
+     * Returns the cached future for {@code key}, starting a load if there is none. Concurrent
+     * callers for the same key share one future; it completes with null if the loader found
+     * nothing and exceptionally if the load failed. Neither outcome stays cached.
+     */
+    CompletableFuture<V> get(K key);
+    Optional<CompletableFuture<V>> getIfPresent(K key);
+    void put(K key, CompletableFuture<V> value);
+    boolean remove(K key);
+    boolean containsKey(K key);
+    int size();
+    void clear();
+    CacheStats getStats();
+    void shutdown();
+}
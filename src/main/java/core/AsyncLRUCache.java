@@ -0,0 +1,167 @@
+package core;
+
+import config.CacheConfig;
+import loader.AsyncCacheLoader;
+import stats.CacheStats;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AsyncCache} backed by an {@link LRUCache} of futures. A miss installs its future
+ * before the load starts, so every caller that arrives while the load is in flight gets the
+ * same future. Futures that fail, or complete with null, are removed as soon as they complete.
+ */
+public class AsyncLRUCache<K,V> implements AsyncCache<K,V> {
+
+    private final LRUCache<K, CompletableFuture<V>> cache;
+    private final AsyncCacheLoader<K,V> loader;
+    private final Executor executor;
+    private final boolean recordStats;
+
+    /** Loads through the config's blocking {@link loader.CacheLoader}, run on the config's executor. */
+    public AsyncLRUCache(CacheConfig<K,V> config) {
+        this(config, AsyncCacheLoader.from(Objects.requireNonNull(config, "config must not be null").getCacheLoader()));
+    }
+
+    public AsyncLRUCache(CacheConfig<K,V> config, AsyncCacheLoader<K,V> loader) {
+        Objects.requireNonNull(config, "config must not be null");
+        if(config.hasExpiry()) {
+            throw new IllegalArgumentException("AsyncLRUCache does not support a per-entry expiry");
+        }
+        if(config.isWeighted()) {
+            throw new IllegalArgumentException("AsyncLRUCache does not support a weigher");
+        }
+        if(config.isOffHeap()) {
+            throw new IllegalArgumentException("AsyncLRUCache does not support off-heap values");
+        }
+        if(config.isRefreshAfterWrite()) {
+            throw new IllegalArgumentException("AsyncLRUCache does not support refreshAfterWrite");
+        }
+        if(config.hasRemovalListener()) {
+            throw new IllegalArgumentException("AsyncLRUCache does not support a removal listener");
+        }
+        this.loader = Objects.requireNonNull(loader, "loader must not be null");
+        this.executor = config.getExecutor();
+        this.recordStats = config.isRecordStats();
+        CacheConfig.Builder<K, CompletableFuture<V>> futures = CacheConfig.<K, CompletableFuture<V>>builder()
+                .capacity(config.getCapacity())
+                .ttl(config.getTtlNanos(), TimeUnit.NANOSECONDS)
+                .cleanupInterval(config.getCleanupIntervalNanos(), TimeUnit.NANOSECONDS)
+                .recordStats(config.isRecordStats())
+                .admissionPolicy(config.getAdmissionPolicy())
+                .executor(config.getExecutor())
+                .ticker(config.getTicker());
+        if(config.getName() != null) {
+            futures.name(config.getName());
+        }
+        if(config.isExpireAfterAccess()) {
+            futures.expireAfterAccess(config.getExpireAfterAccessNanos(), TimeUnit.NANOSECONDS);
+        }
+        this.cache = new LRUCache<>(futures.build());
+    }
+
+    @Override
+    public CompletableFuture<V> get(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+
+        Optional<CompletableFuture<V>> cached = cache.get(key);
+        if(cached.isPresent()) {
+            if(!cached.get().isCompletedExceptionally()) {
+                // joining a load that is still running saves a backend call, like a sync waiter
+                if(recordStats && !cached.get().isDone()) getStats().recordCoalescedLoad();
+                return cached.get();
+            }
+            cache.remove(key, cached.get()); // failed, but its cleanup hasn't run yet
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = cache.putIfAbsent(key, future);
+        if(inFlight != null) {
+            if(recordStats) getStats().recordCoalescedLoad();
+            return inFlight;
+        }
+
+        long loadStart = System.nanoTime();
+        CompletableFuture<V> load;
+        try {
+            load = loader.asyncLoad(key, executor);
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+
+        load.whenComplete((value, error) -> {
+            if(error != null || value == null) {
+                cache.remove(key, future);
+            }
+            if(error != null) {
+                if(recordStats) getStats().recordLoadFail(System.nanoTime() - loadStart);
+                future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                if(recordStats) getStats().recordLoad(System.nanoTime() - loadStart);
+                future.complete(value);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public Optional<CompletableFuture<V>> getIfPresent(K key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public void put(K key, CompletableFuture<V> value) {
+        Objects.requireNonNull(value, "value must not be null");
+        cache.put(key, value);
+        // keep the same contract as loaded futures: failures and nulls are not cached
+        value.whenComplete((v, error) -> {
+            if(error != null || v == null) {
+                cache.remove(key, value);
+            }
+        });
+    }
+
+    @Override
+    public boolean remove(K key) {
+        return cache.remove(key);
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return cache.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    @Override
+    public void shutdown() {
+        cache.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncLRUCache{" +
+                "size=" + size() +
+                ", stats=" + getStats() +
+                '}';
+    }
+}
@@ -2,6 +2,7 @@ package core;
 
 import stats.CacheStats;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -9,6 +10,7 @@ import java.util.Set;
 public interface Cache<K,V> {
 
     Optional<V> get(K key);
+    Map<K,V> getAll(Collection<K> keys);
     void put(K key, V value);
     boolean remove(K key);
     boolean containsKey(K key);
@@ -0,0 +1,41 @@
+package core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("lru.cache.CacheCleanupSweep")
+@Label("Cache Cleanup Sweep")
+@Category("LRU Cache")
+@Description("A background run removing expired and idle entries from an LRUCache")
+@StackTrace(false)
+final class CacheCleanupSweepEvent extends Event {
+
+    @Label("Cache")
+    String cacheName;
+
+    @Label("Entries Scanned")
+    int scanned;
+
+    @Label("Entries Removed")
+    int removed;
+
+    @Label("Write Lock Held")
+    @Timespan
+    long lockHeld;
+
+    void finish(String cacheName, int scanned, int removed, long lockHeldNanos) {
+        end();
+        if(shouldCommit()) {
+            this.cacheName = cacheName;
+            this.scanned = scanned;
+            this.removed = removed;
+            this.lockHeld = lockHeldNanos;
+            commit();
+        }
+    }
+}
@@ -1,32 +1,46 @@
 package core;
 
-final class CacheEntry<K,V> {
+class CacheEntry<K,V> {
+
+    static final long NEVER = Long.MAX_VALUE;
 
     final K key;
-    V value;
-    long createdAt;
-    long lastAccessedAt;
+    volatile V value;
+    volatile long writeTime; // last put or refresh; TTL and refresh-ahead count from here
+    volatile long lastAccessedAt; // last read or write; expire-after-access counts from here
+    int weight;
+    volatile long expiresAt = NEVER; // precomputed ticker deadline
 
     CacheEntry<K, V> prev;
     CacheEntry<K, V> next;
+    byte region; // segment of the eviction policy holding this entry
+
+    CacheEntry<K, V> prevInTime;
+    CacheEntry<K, V> nextInTime;
 
-    CacheEntry(K key, V value) {
+    CacheEntry(K key, V value, long now) {
         this.key = key;
         this.value = value;
-        long now = System.currentTimeMillis();
-        this.createdAt = now;
+        this.writeTime = now;
         this.lastAccessedAt = now;
     }
 
-    boolean isExpired(long ttlSeconds) {
-        if(ttlSeconds <= 0) {
-            return false; // No expiration
-        }
-        return (System.currentTimeMillis() - createdAt) > ttlSeconds * 1000L;
+    // ticker readings may be negative and wrap, so compare differences, never raw values
+    boolean isExpired(long now) {
+        long deadline = expiresAt;
+        return deadline != NEVER && now - deadline > 0;
+    }
+
+    boolean isIdle(long now, long expireAfterAccessNanos) {
+        return expireAfterAccessNanos > 0 && (now - lastAccessedAt) > expireAfterAccessNanos;
     }
 
-    void touch() {
-        this.lastAccessedAt = System.currentTimeMillis();
+    boolean needsRefresh(long now, long refreshAfterWriteNanos) {
+        return refreshAfterWriteNanos > 0 && (now - writeTime) > refreshAfterWriteNanos;
+    }
+
+    void touch(long now) {
+        this.lastAccessedAt = now;
     }
 
     @Override
@@ -34,8 +48,9 @@ final class CacheEntry<K,V> {
         return "CacheEntry{" +
                 "key=" + key +
                 ", value=" + value +
-                ", createdAt=" + createdAt +
+                ", writeTime=" + writeTime +
                 ", lastAccessedAt=" + lastAccessedAt +
+                ", expiresAt=" + expiresAt +
                 '}';
     }
 }
@@ -0,0 +1,35 @@
+package core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("lru.cache.CacheEvictionBurst")
+@Label("Cache Eviction Burst")
+@Category("LRU Cache")
+@Description("Evictions made by one write to bring an LRUCache back within its bounds")
+@Threshold("1 ms")
+final class CacheEvictionBurstEvent extends Event {
+
+    @Label("Cache")
+    String cacheName;
+
+    @Label("Entries Evicted")
+    int evicted;
+
+    @Label("Weighted Size After")
+    long weightedSize;
+
+    void finish(String cacheName, int evicted, long weightedSize) {
+        end();
+        if(shouldCommit()) {
+            this.cacheName = cacheName;
+            this.evicted = evicted;
+            this.weightedSize = weightedSize;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("lru.cache.CacheLoad")
+@Label("Cache Load")
+@Category("LRU Cache")
+@Description("A loader call made by an LRUCache for a miss, a refresh or a batch of misses")
+@StackTrace(false)
+@Threshold("10 ms")
+final class CacheLoadEvent extends Event {
+
+    @Label("Cache")
+    String cacheName;
+
+    @Label("Key Hash")
+    @Description("hashCode() of the loaded key, 0 for a bulk load")
+    int keyHash;
+
+    @Label("Keys")
+    int keyCount;
+
+    @Label("Success")
+    boolean success;
+
+    void finish(String cacheName, int keyHash, int keyCount, boolean success) {
+        end();
+        if(shouldCommit()) {
+            this.cacheName = cacheName;
+            this.keyHash = keyHash;
+            this.keyCount = keyCount;
+            this.success = success;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("lru.cache.CacheLockWait")
+@Label("Cache Lock Wait")
+@Category("LRU Cache")
+@Description("Time a thread blocked acquiring an LRUCache's read or write lock")
+@Threshold("10 ms")
+final class CacheLockWaitEvent extends Event {
+
+    @Label("Cache")
+    String cacheName;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Write Lock")
+    boolean writeLock;
+
+    void finish(String cacheName, String operation, boolean writeLock) {
+        end();
+        if(shouldCommit()) {
+            this.cacheName = cacheName;
+            this.operation = operation;
+            this.writeLock = writeLock;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package core;
+
+import config.CacheConfig;
+import loader.CacheLoadException;
+import loader.CacheLoader;
+import stats.CacheStats;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache with CLOCK (second-chance) eviction. A hit only sets the entry's reference bit, so
+ * reads take no lock at all. Inserts, removals and evictions are serialised by one lock;
+ * eviction sweeps a hand around a ring of slots, clearing reference bits until it finds an
+ * entry that has not been read since the hand last passed it.
+ */
+public class ClockCache<K, V> implements Cache<K, V> {
+
+    private static final Logger LOGGER = Logger.getLogger(ClockCache.class.getName());
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final Node<K, V>[] ring;
+    private final int[] freeSlots;
+    private int freeCount;
+    private int hand;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final CacheConfig<K, V> config;
+    private final CacheStats stats;
+    private final ScheduledExecutorService cleanupExecutor;
+
+    @SuppressWarnings("unchecked")
+    public ClockCache(CacheConfig<K, V> config) {
+        this.config = Objects.requireNonNull(config, "config must not be null");
+        if(config.isRefreshAfterWrite()) {
+            throw new IllegalArgumentException("ClockCache does not support refreshAfterWrite");
+        }
+        if(config.hasExpiry()) {
+            throw new IllegalArgumentException("ClockCache does not support a per-entry expiry");
+        }
+        if(config.isExpireAfterAccess()) {
+            throw new IllegalArgumentException("ClockCache does not support expireAfterAccess");
+        }
+        if(config.isWeighted()) {
+            throw new IllegalArgumentException("ClockCache does not support a weigher");
+        }
+        if(config.isOffHeap()) {
+            throw new IllegalArgumentException("ClockCache does not support off-heap values");
+        }
+        if(config.hasRemovalListener()) {
+            throw new IllegalArgumentException("ClockCache does not support a removal listener");
+        }
+        this.map = new ConcurrentHashMap<>(Math.min(config.getCapacity() * 2, 1 << 16));
+        this.stats = new CacheStats();
+
+        this.ring = new Node[config.getCapacity()];
+        this.freeSlots = new int[config.getCapacity()];
+        resetFreeSlots();
+
+        this.cleanupExecutor = LRUCache.newCleanupExecutor();
+        cleanupExecutor.scheduleAtFixedRate(
+                this::cleanupExpiredEntries,
+                config.getCleanupIntervalNanos(),
+                config.getCleanupIntervalNanos(),
+                TimeUnit.NANOSECONDS
+        );
+    }
+
+    @Override
+    public Optional<V> get(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+
+        Node<K, V> node = map.get(key);
+        if(node != null && !isExpired(node)) {
+            // CACHE HIT - avoid dirtying the cache line when the bit is already set
+            if(!node.referenced) {
+                node.referenced = true;
+            }
+            if(config.isRecordStats()) stats.recordHit();
+            return Optional.of(node.value);
+        }
+
+        // CACHE MISS or EXPIRED
+        if(config.isRecordStats()) stats.recordMiss();
+
+        if(node != null) {
+            lock.lock();
+            try {
+                node = map.get(key);
+                if(node != null && isExpired(node)) {
+                    removeNode(node);
+                    if(config.isRecordStats()) stats.recordExpired();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        if(config.hasLoader()) {
+            return loadAndCache(key);
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public Map<K, V> getAll(Collection<K> keys) {
+        Objects.requireNonNull(keys, "keys must not be null");
+
+        Map<K, V> result = new LinkedHashMap<>();
+        Set<K> misses = new LinkedHashSet<>();
+        for(K key : keys) {
+            Objects.requireNonNull(key, "key must not be null");
+            if(result.containsKey(key) || misses.contains(key)) continue;
+
+            Node<K, V> node = map.get(key);
+            if(node != null && !isExpired(node)) {
+                if(!node.referenced) {
+                    node.referenced = true;
+                }
+                if(config.isRecordStats()) stats.recordHit();
+                result.put(key, node.value);
+            } else {
+                if(config.isRecordStats()) stats.recordMiss();
+                misses.add(key);
+            }
+        }
+        if(misses.isEmpty()) {
+            return Collections.unmodifiableMap(result);
+        }
+
+        if(config.hasBulkLoader()) {
+            Map<K, V> loaded = Collections.emptyMap();
+            long loadStart = System.nanoTime();
+            try {
+                loaded = config.getBulkLoader().loadAll(Collections.unmodifiableSet(misses));
+                if(config.isRecordStats()) stats.recordLoad(System.nanoTime() - loadStart);
+            } catch (CacheLoadException e) {
+                if(config.isRecordStats()) stats.recordLoadFail(System.nanoTime() - loadStart);
+                LOGGER.log(Level.WARNING, "BulkCacheLoader failed for " + misses.size() + " keys", e);
+            }
+            if(loaded != null && !loaded.isEmpty()) {
+                lock.lock();
+                try {
+                    loaded.forEach((key, value) -> {
+                        if(key != null && value != null) putLocked(key, value);
+                    });
+                } finally {
+                    lock.unlock();
+                }
+                for(K key : misses) {
+                    V value = loaded.get(key);
+                    if(value != null) result.put(key, value);
+                }
+            }
+        } else if(config.hasLoader()) {
+            for(K key : misses) {
+                loadAndCache(key).ifPresent(value -> result.put(key, value));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(value, "value must not be null");
+
+        lock.lock();
+        try {
+            putLocked(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+        lock.lock();
+        try {
+            Node<K, V> node = map.get(key);
+            if(node == null) return false;
+            removeNode(node);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+        Node<K, V> node = map.get(key);
+        return node != null && !isExpired(node);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            map.clear();
+            Arrays.fill(ring, null);
+            resetFreeSlots();
+            hand = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putAll(Map<K, V> entries) {
+        Objects.requireNonNull(entries, "entries must not be null");
+        entries.forEach((key, value) -> {
+            Objects.requireNonNull(key, "key must not be null");
+            Objects.requireNonNull(value, "value must not be null");
+        });
+
+        Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+        while(it.hasNext()) {
+            lock.lock();
+            try {
+                for(int i = 0; i < LRUCache.PUT_ALL_BATCH_SIZE && it.hasNext(); i++) {
+                    Map.Entry<K, V> e = it.next();
+                    putLocked(e.getKey(), e.getValue());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(map.keySet());
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void shutdown() {
+        cleanupExecutor.shutdown();
+        try {
+            if (!cleanupExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                cleanupExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            cleanupExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Optional<V> loadAndCache(K key) {
+        long loadStart = System.nanoTime();
+        CacheLoader<K,V> loader = config.getCacheLoader();
+        try {
+            V loaded = loader.load(key);
+            if(config.isRecordStats()) stats.recordLoad(System.nanoTime() - loadStart);
+            if(loaded != null) {
+                put(key, loaded);
+                return Optional.of(loaded);
+            }
+        } catch (CacheLoadException e) {
+            if(config.isRecordStats()) stats.recordLoadFail(System.nanoTime() - loadStart);
+            LOGGER.log(Level.WARNING, "CacheLoader failed for key: " + key, e);
+        }
+        return Optional.empty();
+    }
+
+    // caller must hold the lock
+    private void putLocked(K key, V value) {
+        Node<K, V> existing = map.get(key);
+        if(existing != null) {
+            existing.value = value;
+            existing.writeTime = config.getTicker().read();
+            existing.referenced = true;
+        } else {
+            if(freeCount == 0) {
+                evict();
+            }
+            int slot = freeSlots[--freeCount];
+            Node<K, V> node = new Node<>(key, value, slot, config.getTicker().read());
+            ring[slot] = node;
+            map.put(key, node);
+        }
+        if(config.isRecordStats()) stats.recordPut();
+    }
+
+    // caller must hold the lock; the ring is full so every slot holds a node
+    private void evict() {
+        while(true) {
+            Node<K, V> node = ring[hand];
+            hand = (hand + 1) % ring.length;
+            if(node.referenced) {
+                node.referenced = false; // second chance
+            } else {
+                removeNode(node);
+                if(config.isRecordStats()) stats.recordEviction();
+                LOGGER.fine(() -> "Evicted CLOCK entry with key: " + node.key);
+                return;
+            }
+        }
+    }
+
+    // caller must hold the lock
+    private void removeNode(Node<K, V> node) {
+        map.remove(node.key);
+        ring[node.slot] = null;
+        freeSlots[freeCount++] = node.slot;
+    }
+
+    private void resetFreeSlots() {
+        // hand out low slots first so the ring fills in sweep order
+        for(int i = 0; i < freeSlots.length; i++) {
+            freeSlots[i] = freeSlots.length - 1 - i;
+        }
+        freeCount = freeSlots.length;
+    }
+
+    private boolean isExpired(Node<K, V> node) {
+        long ttlNanos = config.getTtlNanos();
+        if(ttlNanos <= 0) {
+            return false;
+        }
+        return (config.getTicker().read() - node.writeTime) > ttlNanos;
+    }
+
+    private void cleanupExpiredEntries() {
+        int removed = 0;
+        lock.lock();
+        try {
+            for(Node<K, V> node : ring) {
+                if(node != null && isExpired(node)) {
+                    removeNode(node);
+                    removed++;
+                    if(config.isRecordStats()) {
+                        stats.recordExpired();
+                        stats.recordEviction();
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        int cleaned = removed;
+        LOGGER.fine(() -> "Cleaned up " + cleaned + " expired cache entries");
+    }
+
+    @Override
+    public String toString() {
+        return "ClockCache{" +
+                "size=" + size() +
+                ", capacity=" + config.getCapacity() +
+                ", stats=" + stats +
+                '}';
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        volatile long writeTime;
+        final int slot;
+        volatile boolean referenced;
+
+        Node(K key, V value, int slot, long now) {
+            this.key = key;
+            this.value = value;
+            this.slot = slot;
+            this.writeTime = now;
+        }
+    }
+}
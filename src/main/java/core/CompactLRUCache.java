@@ -0,0 +1,511 @@
+package core;
+
+import config.AdmissionPolicy;
+import config.CacheConfig;
+import loader.CacheLoadException;
+import stats.CacheStats;
+
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * LRU cache that stores entries in parallel arrays instead of node objects. Each slot holds a
+ * key, value, cached hash and write time; LRU order is kept by an {@link IndexDeque} of int
+ * links, freed slots are recycled through its free list, and an open-addressing table maps
+ * keys to slots. Apart from the keys and values themselves there is nothing per entry for the
+ * garbage collector to trace. A {@link WriteOrderList} keeps slots in write order, so cleanup
+ * peels expired entries off its head in bounded batches. Hits are optimistic reads that never
+ * touch the lock; their promotions go to an {@link IndexReadBuffer} and are replayed under the
+ * write lock before an eviction or when a stripe fills. The buffer drops hits when full, so
+ * LRU order is approximate under heavy load.
+ * Supports capacity, TTL, stats and loaders; other {@link CacheConfig} options are rejected.
+ */
+public class CompactLRUCache<K, V> implements Cache<K, V> {
+
+    private static final Logger LOGGER = Logger.getLogger(CompactLRUCache.class.getName());
+    static final int MAX_CAPACITY = 1 << 29; // largest capacity whose hash table size fits an int
+
+    private final int capacity;
+    private final Object[] keys; // null marks a free slot
+    private final Object[] values;
+    private final int[] hashes;
+    private final long[] writeTimes;
+    private final int[] table; // hash slot -> entry slot + 1, 0 when empty
+    private final int tableMask;
+    private final IndexDeque order;
+    private final WriteOrderList writeOrder;
+    private final IndexReadBuffer readBuffer = new IndexReadBuffer();
+
+    private final StampedLock lock = new StampedLock();
+
+    private final CacheConfig<K, V> config;
+    private final CacheStats stats;
+    private final ScheduledExecutorService cleanupExecutor;
+
+    public CompactLRUCache(CacheConfig<K, V> config) {
+        this.config = Objects.requireNonNull(config, "config must not be null");
+        if(config.getAdmissionPolicy() != AdmissionPolicy.ALWAYS || config.hasExpiry() || config.isWeighted()
+                || config.isOffHeap() || config.isRefreshAfterWrite() || config.isExpireAfterAccess()
+                || config.hasRemovalListener()) {
+            throw new IllegalArgumentException("CompactLRUCache supports only capacity, TTL, stats and loaders");
+        }
+        if(config.getCapacity() > MAX_CAPACITY) {
+            throw new IllegalArgumentException("CompactLRUCache capacity must not exceed " + MAX_CAPACITY);
+        }
+        this.capacity = config.getCapacity();
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.hashes = new int[capacity];
+        this.writeTimes = new long[capacity];
+        // at most half full, so probe sequences stay short
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) - 1) << 2;
+        this.table = new int[tableSize];
+        this.tableMask = tableSize - 1;
+        this.order = new IndexDeque(capacity);
+        this.writeOrder = new WriteOrderList(capacity);
+        this.stats = new CacheStats();
+
+        this.cleanupExecutor = LRUCache.newCleanupExecutor();
+        cleanupExecutor.scheduleAtFixedRate(
+                this::cleanupExpiredEntries,
+                config.getCleanupIntervalNanos(),
+                config.getCleanupIntervalNanos(),
+                TimeUnit.NANOSECONDS
+        );
+    }
+
+    @Override
+    public Optional<V> get(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+
+        V value = getIfPresent(key, spread(key.hashCode()));
+        if(value != null) {
+            if(config.isRecordStats()) stats.recordHit();
+            return Optional.of(value);
+        }
+
+        // CACHE MISS or EXPIRED
+        if(config.isRecordStats()) stats.recordMiss();
+
+        if(config.hasLoader()) {
+            return loadAndCache(key);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Map<K, V> getAll(Collection<K> keys) {
+        Objects.requireNonNull(keys, "keys must not be null");
+
+        Map<K, V> result = new LinkedHashMap<>();
+        Set<K> misses = new LinkedHashSet<>();
+        for(K key : keys) {
+            Objects.requireNonNull(key, "key must not be null");
+            if(result.containsKey(key) || misses.contains(key)) continue;
+
+            V value = getIfPresent(key, spread(key.hashCode()));
+            if(value != null) {
+                if(config.isRecordStats()) stats.recordHit();
+                result.put(key, value);
+            } else {
+                if(config.isRecordStats()) stats.recordMiss();
+                misses.add(key);
+            }
+        }
+        if(misses.isEmpty()) {
+            return Collections.unmodifiableMap(result);
+        }
+
+        if(config.hasBulkLoader()) {
+            Map<K, V> loaded = Collections.emptyMap();
+            long loadStart = System.nanoTime();
+            try {
+                loaded = config.getBulkLoader().loadAll(Collections.unmodifiableSet(misses));
+                if(config.isRecordStats()) stats.recordLoad(System.nanoTime() - loadStart);
+            } catch (CacheLoadException e) {
+                if(config.isRecordStats()) stats.recordLoadFail(System.nanoTime() - loadStart);
+                LOGGER.log(Level.WARNING, "BulkCacheLoader failed for " + misses.size() + " keys", e);
+            }
+            if(loaded != null && !loaded.isEmpty()) {
+                long stamp = lock.writeLock();
+                try {
+                    loaded.forEach((key, value) -> {
+                        if(key != null && value != null) putLocked(key, value);
+                    });
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+                for(K key : misses) {
+                    V value = loaded.get(key);
+                    if(value != null) result.put(key, value);
+                }
+            }
+        } else if(config.hasLoader()) {
+            for(K key : misses) {
+                loadAndCache(key).ifPresent(value -> result.put(key, value));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(value, "value must not be null");
+
+        long stamp = lock.writeLock();
+        try {
+            putLocked(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean remove(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+        long stamp = lock.writeLock();
+        try {
+            int index = indexOf(key, spread(key.hashCode()));
+            if(index < 0) return false;
+            removeIndex(index);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+        long stamp = lock.readLock();
+        try {
+            int index = indexOf(key, spread(key.hashCode()));
+            return index >= 0 && !isExpired(writeTimes[index]);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return order.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            Arrays.fill(table, 0);
+            Arrays.fill(keys, null);
+            Arrays.fill(values, null);
+            order.clear();
+            readBuffer.clear();
+            writeOrder.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void putAll(Map<K, V> entries) {
+        Objects.requireNonNull(entries, "entries must not be null");
+        entries.forEach((key, value) -> {
+            Objects.requireNonNull(key, "key must not be null");
+            Objects.requireNonNull(value, "value must not be null");
+        });
+
+        Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+        while(it.hasNext()) {
+            long stamp = lock.writeLock();
+            try {
+                for(int i = 0; i < LRUCache.PUT_ALL_BATCH_SIZE && it.hasNext(); i++) {
+                    Map.Entry<K, V> e = it.next();
+                    putLocked(e.getKey(), e.getValue());
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<K> keys() {
+        long stamp = lock.readLock();
+        try {
+            Set<K> result = new HashSet<>();
+            for(Object key : keys) {
+                if(key != null) result.add((K) key);
+            }
+            return Collections.unmodifiableSet(result);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void shutdown() {
+        cleanupExecutor.shutdown();
+        try {
+            if (!cleanupExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                cleanupExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            cleanupExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // live value for key, or null; removes the entry if it has expired
+    @SuppressWarnings("unchecked")
+    private V getIfPresent(K key, int hash) {
+        int index;
+        Object value;
+        long writeTime;
+
+        long stamp = lock.tryOptimisticRead();
+        boolean torn = false;
+        try {
+            index = indexOf(key, hash);
+            value = index < 0 ? null : values[index];
+            writeTime = index < 0 ? 0L : writeTimes[index];
+        } catch (RuntimeException e) {
+            // equals() ran on a key a concurrent writer hadn't safely published yet; retry locked
+            index = -1;
+            value = null;
+            writeTime = 0L;
+            torn = true;
+        }
+        if(torn || !lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                index = indexOf(key, hash);
+                value = index < 0 ? null : values[index];
+                writeTime = index < 0 ? 0L : writeTimes[index];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if(value == null) {
+            return null;
+        }
+
+        if(isExpired(writeTime)) {
+            long ws = lock.writeLock();
+            try {
+                int current = indexOf(key, hash);
+                if(current >= 0 && isExpired(writeTimes[current])) {
+                    removeIndex(current);
+                    if(config.isRecordStats()) stats.recordExpired();
+                }
+            } finally {
+                lock.unlockWrite(ws);
+            }
+            return null;
+        }
+
+        // the promotion is buffered, so hits don't invalidate optimistic reads
+        afterRead(index);
+        return (V) value;
+    }
+
+    private Optional<V> loadAndCache(K key) {
+        long loadStart = System.nanoTime();
+        try {
+            V loaded = config.getCacheLoader().load(key);
+            if(config.isRecordStats()) stats.recordLoad(System.nanoTime() - loadStart);
+            if(loaded != null) {
+                put(key, loaded);
+                return Optional.of(loaded);
+            }
+        } catch (CacheLoadException e) {
+            if(config.isRecordStats()) stats.recordLoadFail(System.nanoTime() - loadStart);
+            LOGGER.log(Level.WARNING, "CacheLoader failed for key: " + key, e);
+        }
+        return Optional.empty();
+    }
+
+    // caller must hold the write lock
+    private void putLocked(K key, V value) {
+        int hash = spread(key.hashCode());
+        int index = indexOf(key, hash);
+        if(index >= 0) {
+            values[index] = value;
+            writeTimes[index] = config.getTicker().read();
+            order.moveToFront(index);
+            writeOrder.moveToLast(index);
+        } else {
+            if(order.size() == capacity) {
+                drainReadBuffer(); // replay buffered hits so the victim really is the LRU entry
+                evict();
+            }
+            index = order.allocate();
+            keys[index] = key;
+            values[index] = value;
+            hashes[index] = hash;
+            writeTimes[index] = config.getTicker().read();
+            insertIntoTable(hash, index);
+            writeOrder.addLast(index);
+        }
+        if(config.isRecordStats()) stats.recordPut();
+    }
+
+    // may run under an optimistic read, so it must terminate and stay in bounds on torn state
+    private int indexOf(Object key, int hash) {
+        int slot = hash & tableMask;
+        for(int probes = 0; probes <= tableMask; probes++) {
+            int ref = table[slot];
+            if(ref == 0) {
+                return -1;
+            }
+            Object candidate = keys[ref - 1];
+            if(hashes[ref - 1] == hash && candidate != null && candidate.equals(key)) {
+                return ref - 1;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+        return -1;
+    }
+
+    // caller must hold the write lock
+    private void insertIntoTable(int hash, int index) {
+        int slot = hash & tableMask;
+        while(table[slot] != 0) {
+            slot = (slot + 1) & tableMask;
+        }
+        table[slot] = index + 1;
+    }
+
+    // caller must hold the write lock; backward-shift deletion keeps probe chains intact
+    // without tombstones
+    private void removeFromTable(int index) {
+        int hole = hashes[index] & tableMask;
+        while(table[hole] != index + 1) {
+            hole = (hole + 1) & tableMask;
+        }
+
+        int slot = hole;
+        while(true) {
+            slot = (slot + 1) & tableMask;
+            int ref = table[slot];
+            if(ref == 0) {
+                break;
+            }
+            int home = hashes[ref - 1] & tableMask;
+            // shift back if the hole lies on the probe path from this key's home slot
+            if(((slot - home) & tableMask) >= ((slot - hole) & tableMask)) {
+                table[hole] = ref;
+                hole = slot;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    // caller must hold the write lock
+    private void removeIndex(int index) {
+        removeFromTable(index);
+        keys[index] = null;
+        values[index] = null;
+        order.free(index);
+        writeOrder.remove(index);
+    }
+
+    // buffers the hit; a full stripe is replayed if the write lock is free, else the hit may be dropped
+    private void afterRead(int index) {
+        if(readBuffer.offer(index)) {
+            long ws = lock.tryWriteLock();
+            if(ws != 0L) {
+                try {
+                    drainReadBuffer();
+                } finally {
+                    lock.unlockWrite(ws);
+                }
+            }
+        }
+    }
+
+    // caller must hold the write lock; slots freed since the hit are skipped
+    private void drainReadBuffer() {
+        readBuffer.drainTo(index -> {
+            if(keys[index] != null) order.moveToFront(index);
+        });
+    }
+
+    // caller must hold the write lock
+    private void evict() {
+        int victim = order.last();
+        Object key = keys[victim];
+        removeIndex(victim);
+        if(config.isRecordStats()) stats.recordEviction();
+        LOGGER.fine(() -> "Evicted entry with key: " + key);
+    }
+
+    private boolean isExpired(long writeTime) {
+        long ttlNanos = config.getTtlNanos();
+        return ttlNanos > 0 && (config.getTicker().read() - writeTime) > ttlNanos;
+    }
+
+    // peels expired slots off the oldest end of the write order, taking the write lock once per
+    // batch so readers get in between batches instead of waiting out the whole sweep
+    private void cleanupExpiredEntries() {
+        int removed = 0;
+        int batch;
+        do {
+            batch = 0;
+            long stamp = lock.writeLock();
+            try {
+                int index;
+                while(batch < LRUCache.CLEANUP_BATCH_SIZE
+                        && (index = writeOrder.first()) >= 0 && isExpired(writeTimes[index])) {
+                    removeIndex(index);
+                    batch++;
+                    if(config.isRecordStats()) {
+                        stats.recordExpired();
+                        stats.recordEviction();
+                    }
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            removed += batch;
+        } while(batch == LRUCache.CLEANUP_BATCH_SIZE);
+
+        int cleaned = removed;
+        LOGGER.fine(() -> "Cleaned up " + cleaned + " expired cache entries");
+    }
+
+    // spread the high bits down, since the table indexes by the low bits
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactLRUCache{" +
+                "size=" + size() +
+                ", capacity=" + capacity +
+                ", stats=" + stats +
+                '}';
+    }
+}
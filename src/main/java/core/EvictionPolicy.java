@@ -0,0 +1,44 @@
+package core;
+
+import config.AdmissionPolicy;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Orders resident entries and picks eviction victims for an {@link LRUCache}.
+ * Not thread safe; every method is called with the cache write lock held.
+ */
+interface EvictionPolicy<K, V> {
+
+    void recordAdd(CacheEntry<K, V> entry);
+
+    void recordAccess(CacheEntry<K, V> entry);
+
+    void remove(CacheEntry<K, V> entry);
+
+    /** Returns the entry to evict next, or null if the policy holds no entries. */
+    CacheEntry<K, V> selectVictim();
+
+    /**
+     * Removes entries from the cold end of each access-ordered list while {@code idle} holds,
+     * handing each to {@code removal}, which must call {@link #remove}. Stops at the first
+     * entry that is still in use, so the work is proportional to what is removed.
+     */
+    void removeIdle(Predicate<CacheEntry<K, V>> idle, Consumer<CacheEntry<K, V>> removal);
+
+    /** Grows any structures sized by entry count to hold {@code entries} resident entries. */
+    void ensureCapacity(int entries);
+
+    void clear();
+
+    static <K, V> EvictionPolicy<K, V> of(AdmissionPolicy admissionPolicy, int capacity) {
+        switch (admissionPolicy) {
+            case WINDOW_TINY_LFU:
+                return new WindowTinyLfuPolicy<>(capacity);
+            case ALWAYS:
+            default:
+                return new LruPolicy<>();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package core;
+
+/**
+ * 4-bit count-min sketch estimating how often keys were accessed, as used by TinyLFU.
+ * Each {@code long} packs sixteen 4-bit counters; a key maps to four counters in one
+ * slot-aligned group and its frequency is the minimum of them. Once the number of
+ * increments reaches ten times the cache capacity every counter is halved, so the
+ * sketch ages out keys that were popular long ago. The table can grow with the cache.
+ * Not thread safe; callers hold the cache write lock.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAX_COUNT = 15;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int size;
+
+    FrequencySketch(int capacity) {
+        ensureCapacity(capacity);
+    }
+
+    /**
+     * Grows the table for {@code capacity} entries if it is smaller. Every old slot is copied to
+     * each new slot that shares its low index bits, so each key keeps its estimated frequency.
+     */
+    void ensureCapacity(int capacity) {
+        int maximum = Math.min(Math.max(capacity, 8), 1 << 30);
+        int length = Integer.highestOneBit(maximum - 1) << 1;
+        if(table != null && table.length >= length) {
+            return;
+        }
+        long[] grown = new long[length];
+        if(table != null) {
+            for(int i = 0; i < length; i++) {
+                grown[i] = table[i & tableMask];
+            }
+        }
+        this.table = grown;
+        this.tableMask = length - 1;
+        this.sampleSize = (int) Math.min(10L * maximum, Integer.MAX_VALUE);
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    // halves every counter; odd counters lose their remainder, which size accounts for
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size - (odd >>> 2)) >>> 1;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
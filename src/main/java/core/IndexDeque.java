@@ -0,0 +1,89 @@
+package core;
+
+/**
+ * Access-order list over the slots {@code 0..capacity-1} of a set of parallel arrays, linked by
+ * {@code int} indices instead of node objects. Unused slots are threaded onto a free list
+ * through the same {@code next} array. Index {@code capacity} is the sentinel.
+ * Not thread safe; callers hold the cache write lock.
+ */
+final class IndexDeque {
+
+    private final int[] prev;
+    private final int[] next;
+    private final int sentinel;
+    private int freeHead; // -1 when every slot is in use
+    private int size;
+
+    IndexDeque(int capacity) {
+        this.prev = new int[capacity + 1];
+        this.next = new int[capacity + 1];
+        this.sentinel = capacity;
+        clear();
+    }
+
+    /** Takes a slot off the free list and links it as most recently used; -1 if full. */
+    int allocate() {
+        int index = freeHead;
+        if(index < 0) {
+            return -1;
+        }
+        freeHead = next[index];
+        linkFirst(index);
+        size++;
+        return index;
+    }
+
+    /** Unlinks a slot and returns it to the free list. */
+    void free(int index) {
+        unlink(index);
+        next[index] = freeHead;
+        prev[index] = -1;
+        freeHead = index;
+        size--;
+    }
+
+    void moveToFront(int index) {
+        unlink(index);
+        linkFirst(index);
+    }
+
+    /** Returns the least recently used slot, or -1 if empty. */
+    int last() {
+        int index = prev[sentinel];
+        return index == sentinel ? -1 : index;
+    }
+
+    /** Returns the slot used less recently than {@code index}, or -1 at the end. */
+    int previous(int index) {
+        int p = prev[index];
+        return p == sentinel ? -1 : p;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        prev[sentinel] = sentinel;
+        next[sentinel] = sentinel;
+        for(int i = 0; i < sentinel; i++) {
+            next[i] = i + 1 < sentinel ? i + 1 : -1;
+            prev[i] = -1;
+        }
+        freeHead = sentinel > 0 ? 0 : -1;
+        size = 0;
+    }
+
+    private void linkFirst(int index) {
+        int first = next[sentinel];
+        prev[index] = sentinel;
+        next[index] = first;
+        prev[first] = index;
+        next[sentinel] = index;
+    }
+
+    private void unlink(int index) {
+        next[prev[index]] = next[index];
+        prev[next[index]] = prev[index];
+    }
+}
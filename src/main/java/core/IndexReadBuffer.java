@@ -0,0 +1,95 @@
+package core;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * {@link ReadBuffer} for the array-backed caches: a striped, lossy buffer of the slot indices
+ * of cache hits, replayed against the {@link IndexDeque} by a single drainer holding the write
+ * lock. Hits therefore never touch the lock themselves, and optimistic reads stay valid. A slot
+ * may be freed or reused between the hit and the replay, so the drainer must skip free slots;
+ * promoting a reused slot just moves another recent entry forward.
+ */
+final class IndexReadBuffer {
+
+    static final int STRIPE_SIZE = 16;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+    private static final int STRIPE_COUNT = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors() * 2);
+
+    private final Stripe[] stripes;
+
+    IndexReadBuffer() {
+        this.stripes = new Stripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Records a hit on slot {@code index}.
+     *
+     * @return true if the caller's stripe is full and should be drained
+     */
+    boolean offer(int index) {
+        return stripes[stripeIndex()].offer(index);
+    }
+
+    /** Replays all buffered slots into {@code consumer}. Must be called by a single thread at a time. */
+    void drainTo(IntConsumer consumer) {
+        for (Stripe stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    /** Discards all buffered slots. Must be called by a single thread at a time. */
+    void clear() {
+        drainTo(index -> {});
+    }
+
+    private static int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPE_COUNT - 1);
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << (32 - Integer.numberOfLeadingZeros(Math.max(x, 2) - 1));
+    }
+
+    private static final class Stripe {
+        private final AtomicIntegerArray slots = new AtomicIntegerArray(STRIPE_SIZE); // index + 1, 0 when empty
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        boolean offer(int index) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            long size = tail - head;
+            if (size >= STRIPE_SIZE) {
+                return true;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                slots.lazySet((int) (tail & STRIPE_MASK), index + 1);
+                return size + 1 >= STRIPE_SIZE;
+            }
+            return false; // lost the race, drop the hit
+        }
+
+        void drainTo(IntConsumer consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            while (head < tail) {
+                int slot = (int) (head & STRIPE_MASK);
+                int ref = slots.get(slot);
+                if (ref == 0) {
+                    break; // slot claimed but not yet published
+                }
+                slots.lazySet(slot, 0);
+                consumer.accept(ref - 1);
+                head++;
+            }
+            readCounter = head;
+        }
+    }
+}
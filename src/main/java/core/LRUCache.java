@@ -1,14 +1,23 @@
 package core;
 
 import config.CacheConfig;
+import config.Weigher;
+import expiry.Ticker;
+import expiry.Expiry;
+import listener.RemovalCause;
 import loader.CacheLoadException;
 import loader.CacheLoader;
 import stats.CacheStats;
 
+import javax.management.ObjectName;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
@@ -17,40 +26,117 @@ import java.util.logging.Logger;
 public class LRUCache<K, V> implements Cache<K, V> {
 
     private static final Logger LOGGER = Logger.getLogger(LRUCache.class.getName());
+    // entries applied per write lock acquisition in putAll, so readers waiting on the lock aren't starved
+    static final int PUT_ALL_BATCH_SIZE = 1024;
+    // expired entries removed per write lock acquisition by the array-backed caches' cleanup
+    static final int CLEANUP_BATCH_SIZE = 1024;
+    private static final long MAX_DURATION = Long.MAX_VALUE >> 1;
     private final ConcurrentHashMap<K, CacheEntry<K, V>> map;
-    private final CacheEntry<K, V> head;
-    private final CacheEntry<K, V> tail;
+    private final EvictionPolicy<K, V> policy;
+    private final TimerWheel<K, V> timerWheel;
+    private final ReadBuffer<K, V> readBuffer = new ReadBuffer<>();
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlightLoads = new ConcurrentHashMap<>();
 
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private final ReentrantReadWriteLock.ReadLock readLock = lock.readLock();
     private final ReentrantReadWriteLock.WriteLock writeLock = lock.writeLock();
 
     private final CacheConfig<K, V> config;
+    private volatile Expiry<K, V> expiry; // replaced under the write lock by setTtl
+    private volatile long ttlNanos;
+    private final Ticker ticker;
+    private final long expireAfterAccessNanos;
+    private volatile int capacity;
+    private final Weigher<K, V> weigher;
+    private long maximumWeight; // guarded by the write lock
+    private final long maximumEntryWeight;
+    private long weightedSize; // guarded by the write lock
+    private final OffHeapStore offHeap; // null when values live on the heap
     private final CacheStats stats;
     private final ScheduledExecutorService cleanupExecutor;
+    private final boolean ownsCleanupExecutor;
+    private final ScheduledFuture<?> cleanupTask;
+    private final RemovalDispatcher<K, V> removalDispatcher; // null without a removal listener
+    private List<RemovalDispatcher.Removal<K, V>> pendingRemovals = new ArrayList<>(); // guarded by the write lock
+    private final String name; // identifies the cache in JMX and JFR events
+    private final ObjectName objectName; // null for segments, which are managed by their parent
 
     public LRUCache(CacheConfig<K, V> config) {
+        this(config, 0, 1, new CacheStats(), newCleanupExecutor(), true);
+    }
+
+    /**
+     * Creates one segment of a {@link SegmentedLRUCache}. The segment holds its share of the
+     * configured capacity and records into, and cleans up on, resources owned by the parent.
+     */
+    LRUCache(CacheConfig<K, V> config, int segmentIndex, int segmentCount,
+             CacheStats stats, ScheduledExecutorService cleanupExecutor) {
+        this(config, segmentIndex, segmentCount, stats, cleanupExecutor, false);
+    }
+
+    private LRUCache(CacheConfig<K, V> config, int segmentIndex, int segmentCount,
+                     CacheStats stats, ScheduledExecutorService cleanupExecutor, boolean ownsCleanupExecutor) {
         this.config = Objects.requireNonNull(config, "config must not be null");
-        this.map = new ConcurrentHashMap<>(Math.min(config.getCapacity() * 2, 1 << 16));
-        this.stats = new CacheStats();
+        this.capacity = (int) share(config.getCapacity(), segmentIndex, segmentCount);
+        this.map = new ConcurrentHashMap<>(Math.min(capacity * 2, 1 << 16));
+        this.stats = stats;
+        this.ticker = config.getTicker();
+        this.timerWheel = new TimerWheel<>(ticker.read());
+        this.ttlNanos = config.getTtlNanos();
+        this.expiry = config.hasExpiry()
+                ? config.getExpiry()
+                : Expiry.afterWrite(ttlNanos, TimeUnit.NANOSECONDS);
+        this.expireAfterAccessNanos = config.getExpireAfterAccessNanos();
+
+        // an unweighted cache is a weighted one where every entry weighs 1
+        if(config.isWeighted()) {
+            this.weigher = config.getWeigher();
+            this.maximumWeight = share(config.getMaximumWeight(), segmentIndex, segmentCount);
+            this.maximumEntryWeight = config.getMaximumEntryWeight();
+        } else {
+            this.weigher = (key, value) -> 1;
+            this.maximumWeight = capacity;
+            this.maximumEntryWeight = 1;
+        }
+
+        this.offHeap = config.isOffHeap()
+                ? new OffHeapStore(share(config.getOffHeapMaxBytes(), segmentIndex, segmentCount))
+                : null;
 
-        this.head = new CacheEntry<>(null, null);
-        this.tail = new CacheEntry<>(null, null);
-        head.next = tail;
-        tail.prev = head;
+        this.policy = EvictionPolicy.of(config.getAdmissionPolicy(), capacity);
+        this.removalDispatcher = config.hasRemovalListener()
+                ? new RemovalDispatcher<>(config.getRemovalListener(), config.getExecutor())
+                : null;
 
-        this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        this.cleanupExecutor = cleanupExecutor;
+        this.ownsCleanupExecutor = ownsCleanupExecutor;
+        this.cleanupTask = cleanupExecutor.scheduleAtFixedRate(
+                this::cleanupExpiredEntries,
+                config.getCleanupIntervalNanos(),
+                config.getCleanupIntervalNanos(),
+                TimeUnit.NANOSECONDS
+        );
+        if(ownsCleanupExecutor) {
+            this.name = LRUCacheManagement.nameFor(config.getName());
+            this.objectName = LRUCacheManagement.register(this, name);
+        } else {
+            String parent = config.getName() != null ? config.getName() : "SegmentedLRUCache";
+            this.name = parent + "#" + segmentIndex;
+            this.objectName = null;
+        }
+    }
+
+    static ScheduledExecutorService newCleanupExecutor() {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
             Thread t = new Thread(r);
             t.setDaemon(true);
             return t;
         });
+    }
 
-        cleanupExecutor.scheduleAtFixedRate(
-                this::cleanupExpiredEntries,
-                config.getCleanupIntervalSeconds(),
-                config.getCleanupIntervalSeconds(),
-                TimeUnit.SECONDS
-        );
+    // splits total as evenly as possible, handing the remainder to the lowest segments
+    private static long share(long total, int segmentIndex, int segmentCount) {
+        return total / segmentCount + (segmentIndex < total % segmentCount ? 1 : 0);
     }
 
     public static <K,V> CacheConfig.Builder<K,V> builder() {
@@ -61,38 +147,40 @@ public class LRUCache<K, V> implements Cache<K, V> {
     public Optional<V> get(K key) {
         Objects.requireNonNull(key, "key must not be null");
 
-        readLock.lock();
-        try {
-            CacheEntry<K,V> entry = map.get(key);
-            if(entry != null) {
-                if(entry.isExpired(config.getTtlSeconds())) {
-                    // fall through to write-lock removal
-                } else {
-                    // CACHE HIT
-                    entry.touch();
-                    moveToHead(entry);
-                    if(config.isRecordStats()) stats.recordHit();
-                    return Optional.of(entry.value);
-                }
+        long sample = config.isRecordStats() ? stats.startSample() : CacheStats.NOT_SAMPLED;
+        long now = ticker.read();
+        CacheEntry<K,V> entry = map.get(key);
+        V value = entry != null && !isExpired(entry, now) ? valueOf(entry) : null;
+        if(value != null) {
+            // CACHE HIT - promotion is buffered and replayed under the write lock
+            entry.touch(now);
+            expireAfterRead(entry, value, now);
+            afterRead(entry);
+            if(config.isRecordStats()) stats.recordHit();
+            if(entry.needsRefresh(now, config.getRefreshAfterWriteNanos())) {
+                refresh(entry); // stale-while-revalidate
             }
-        } finally {
-            readLock.unlock();
+            if(config.isRecordStats()) stats.recordHitLatency(sample);
+            return Optional.of(value);
         }
 
         // CACHE MISS or EXPIRED
         if(config.isRecordStats()) stats.recordMiss();
 
         // remove expired entry under write lock
-        writeLock.lock();
-        try {
-            CacheEntry<K,V> entry = map.get(key);
-            if(entry != null && entry.isExpired(config.getTtlSeconds())) {
-                removeEntry(entry);
-                if(config.isRecordStats()) stats.recordExpired();
+        if(entry != null) {
+            lockForWrite("get");
+            try {
+                entry = map.get(key);
+                if(entry != null && isExpired(entry, ticker.read())) {
+                    removeEntry(entry, RemovalCause.EXPIRED);
+                    if(config.isRecordStats()) stats.recordExpired();
+                }
+            } finally {
+                unlockForWrite();
             }
-        } finally {
-            writeLock.unlock();
         }
+        if(config.isRecordStats()) stats.recordMissLatency(sample);
 
         // invoke loader if available
         if(config.hasLoader()) {
@@ -102,48 +190,171 @@ public class LRUCache<K, V> implements Cache<K, V> {
         return Optional.empty();
     }
 
+    @Override
+    public Map<K, V> getAll(Collection<K> keys) {
+        Objects.requireNonNull(keys, "keys must not be null");
+
+        Set<K> misses = new LinkedHashSet<>();
+        Map<K, V> result = getAllPresent(keys, misses);
+        if(misses.isEmpty()) {
+            return Collections.unmodifiableMap(result);
+        }
+
+        if(config.hasBulkLoader()) {
+            // one backend round-trip for every miss, inserted with one write lock acquisition
+            Map<K, V> loaded = bulkLoad(misses);
+            putEntries(loaded);
+            for(K key : misses) {
+                V value = loaded.get(key);
+                if(value != null) result.put(key, value);
+            }
+        } else if(config.hasLoader()) {
+            for(K key : misses) {
+                loadAndCache(key).ifPresent(value -> result.put(key, value));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Collects the live mappings for {@code keys} without loading and adds every key that
+     * missed to {@code misses}. Hits take no lock; expired entries are purged under a single
+     * write lock acquisition.
+     */
+    Map<K, V> getAllPresent(Collection<? extends K> keys, Set<K> misses) {
+        Map<K, V> result = new LinkedHashMap<>();
+        List<CacheEntry<K, V>> expired = null;
+        long now = ticker.read();
+
+        for(K key : keys) {
+            Objects.requireNonNull(key, "key must not be null");
+            if(result.containsKey(key) || misses.contains(key)) continue;
+
+            CacheEntry<K,V> entry = map.get(key);
+            V value = entry != null && !isExpired(entry, now) ? valueOf(entry) : null;
+            if(value != null) {
+                result.put(key, value);
+                entry.touch(now);
+                expireAfterRead(entry, value, now);
+                afterRead(entry);
+                if(config.isRecordStats()) stats.recordHit();
+                if(entry.needsRefresh(now, config.getRefreshAfterWriteNanos())) {
+                    refresh(entry);
+                }
+            } else {
+                misses.add(key);
+                if(config.isRecordStats()) stats.recordMiss();
+                if(entry != null) {
+                    if(expired == null) expired = new ArrayList<>();
+                    expired.add(entry);
+                }
+            }
+        }
+
+        if(expired != null) {
+            lockForWrite("getAll");
+            try {
+                for(CacheEntry<K,V> entry : expired) {
+                    if(map.get(entry.key) == entry && isExpired(entry, ticker.read())) {
+                        removeEntry(entry, RemovalCause.EXPIRED);
+                        if(config.isRecordStats()) stats.recordExpired();
+                    }
+                }
+            } finally {
+                unlockForWrite();
+            }
+        }
+        return result;
+    }
+
     @Override
     public void put(K key, V value) {
         Objects.requireNonNull(key, "key must not be null");
         Objects.requireNonNull(value, "value must not be null");
 
-        writeLock.lock();
+        long sample = config.isRecordStats() ? stats.startSample() : CacheStats.NOT_SAMPLED;
+        lockForWrite("put");
         try {
-            CacheEntry<K,V> existing = map.get(key);
-            if(existing != null) {
-                // update entry and promote to MRU
-                existing.value = value;
-                existing.touch();
-                moveToHead(existing);
-            } else {
-                // evict LRU if over capacity
-                if(map.size() >= config.getCapacity()) {
-                    evictLRU();
-                }
+            drainReadBuffer();
+            putLocked(key, value);
+            evictOverflow();
+        } finally {
+            unlockForWrite();
+        }
+        if(config.isRecordStats()) stats.recordPutLatency(sample);
+    }
 
-                CacheEntry<K,V> newEntry = new CacheEntry<>(key, value);
-                map.put(key, newEntry);
-                addToHead(newEntry);
+    /** Inserts a batch of entries under one write lock acquisition, skipping null keys and values. */
+    void putEntries(Map<? extends K, ? extends V> entries) {
+        if(entries.isEmpty()) return;
 
+        lockForWrite("putAll");
+        try {
+            drainReadBuffer();
+            for(Map.Entry<? extends K, ? extends V> e : entries.entrySet()) {
+                if(e.getKey() != null && e.getValue() != null) {
+                    putLocked(e.getKey(), e.getValue());
+                }
+            }
+            evictOverflow();
+        } finally {
+            unlockForWrite();
+        }
+    }
 
+    /**
+     * Inserts {@code value} unless a live mapping for {@code key} exists.
+     *
+     * @return the existing value, or null if {@code value} was inserted
+     */
+    V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(value, "value must not be null");
+
+        lockForWrite("putIfAbsent");
+        try {
+            drainReadBuffer();
+            CacheEntry<K,V> existing = map.get(key);
+            if(existing != null) {
+                if(!isExpired(existing, ticker.read())) {
+                    return valueOf(existing);
+                }
+                removeEntry(existing, RemovalCause.EXPIRED);
+                if(config.isRecordStats()) stats.recordExpired();
             }
-            if(config.isRecordStats()) stats.recordPut();
+            putLocked(key, value);
+            evictOverflow();
+            return null;
         } finally {
-            writeLock.unlock();
+            unlockForWrite();
+        }
+    }
+
+    /** Removes the mapping for {@code key} only if it is still mapped to {@code value}. */
+    boolean remove(K key, V value) {
+        Objects.requireNonNull(key, "key must not be null");
+        lockForWrite("remove");
+        try {
+            CacheEntry<K, V> entry = map.get(key);
+            if(entry == null || entry.value != value) return false;
+            removeEntry(entry, RemovalCause.EXPLICIT);
+            return true;
+        } finally {
+            unlockForWrite();
         }
     }
 
     @Override
     public boolean remove(K key) {
         Objects.requireNonNull(key, "key must not be null");
-        writeLock.lock();
+        lockForWrite("remove");
         try {
             CacheEntry<K, V> entry = map.remove(key);
             if(entry == null) return false;
-            removeEntry(entry);
+            removeEntry(entry, RemovalCause.EXPLICIT);
             return true;
         } finally {
-            writeLock.unlock();
+            unlockForWrite();
         }
     }
 
@@ -151,10 +362,10 @@ public class LRUCache<K, V> implements Cache<K, V> {
     @Override
     public boolean containsKey(K key) {
         Objects.requireNonNull(key, "key must not be null");
-        readLock.lock();
+        lockForRead("containsKey");
         try {
             CacheEntry<K,V> entry = map.get(key);
-            return entry != null && !entry.isExpired(config.getTtlSeconds());
+            return entry != null && !isExpired(entry, ticker.read());
         } finally {
             readLock.unlock();
         }
@@ -172,25 +383,55 @@ public class LRUCache<K, V> implements Cache<K, V> {
 
     @Override
     public void clear() {
-        writeLock.lock();
+        lockForWrite("clear");
         try {
+            if(removalDispatcher != null || offHeap != null) {
+                for(CacheEntry<K, V> entry : map.values()) {
+                    if(removalDispatcher != null) notifyRemoval(entry.key, valueOf(entry), RemovalCause.CLEARED);
+                    // a reader that looked the entry up before the clear must not follow its
+                    // address into a page the store hands out again
+                    if(offHeap != null) ((OffHeapEntry<K, V>) entry).address = -1L;
+                }
+            }
             map.clear();
-            head.next = tail;
-            tail.prev = head;
+            weightedSize = 0;
+            if(offHeap != null) offHeap.clear();
+            readBuffer.clear();
+            policy.clear();
+            timerWheel.clear();
         } finally {
-            writeLock.unlock();
+            unlockForWrite();
         }
     }
 
     @Override
     public void putAll(Map<K, V> entries) {
         Objects.requireNonNull(entries, "entries must not be null");
-        entries.forEach(this::put);
+        // validate up front so a bad entry can't leave the batch half applied
+        entries.forEach((key, value) -> {
+            Objects.requireNonNull(key, "key must not be null");
+            Objects.requireNonNull(value, "value must not be null");
+        });
+
+        Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+        while(it.hasNext()) {
+            lockForWrite("putAll");
+            try {
+                drainReadBuffer();
+                for(int i = 0; i < PUT_ALL_BATCH_SIZE && it.hasNext(); i++) {
+                    Map.Entry<K, V> e = it.next();
+                    putLocked(e.getKey(), e.getValue());
+                }
+                evictOverflow();
+            } finally {
+                unlockForWrite();
+            }
+        }
     }
 
     @Override
     public Set<K> keys() {
-        readLock.lock();
+        lockForRead("keys");
         try {
             return Collections.unmodifiableSet(map.keySet());
         } finally {
@@ -198,6 +439,87 @@ public class LRUCache<K, V> implements Cache<K, V> {
         }
     }
 
+    /** Returns the total weight of the cached entries; equals {@link #size()} without a weigher. */
+    public long weightedSize() {
+        lockForRead("weightedSize");
+        try {
+            return weightedSize;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Changes the maximum number of entries, evicting LRU entries at once if the cache shrinks.
+     * The W-TinyLFU admission policy grows its window and sketch if the cache does, and keeps
+     * their sizing if it shrinks.
+     *
+     * @throws IllegalStateException if the cache is bounded by weight
+     */
+    public void setCapacity(int capacity) {
+        if(capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if(config.isWeighted()) {
+            throw new IllegalStateException("A weighted cache is bounded by maximumWeight, not capacity");
+        }
+        lockForWrite("setCapacity");
+        try {
+            drainReadBuffer();
+            this.capacity = capacity;
+            this.maximumWeight = capacity;
+            evictOverflow();
+        } finally {
+            unlockForWrite();
+        }
+    }
+
+    public long ttlNanos() {
+        return ttlNanos;
+    }
+
+    // true if a per-entry Expiry overrides ttlNanos
+    boolean hasExpiry() {
+        return config.hasExpiry();
+    }
+
+    /**
+     * Changes the TTL. Every cached entry is rescheduled to expire {@code duration} after its
+     * last write, so the call is O(n) under the write lock.
+     *
+     * @throws IllegalStateException if the cache uses a per-entry {@link Expiry}
+     */
+    public void setTtl(long duration, TimeUnit unit) {
+        if(duration <= 0) {
+            throw new IllegalArgumentException("TTL duration must be positive");
+        }
+        if(config.hasExpiry()) {
+            throw new IllegalStateException("TTL is overridden by the configured expiry");
+        }
+        long nanos = unit.toNanos(duration);
+        lockForWrite("setTtl");
+        try {
+            this.ttlNanos = nanos;
+            this.expiry = Expiry.afterWrite(nanos, TimeUnit.NANOSECONDS);
+            long now = ticker.read();
+            for(CacheEntry<K, V> entry : map.values()) {
+                entry.expiresAt = deadline(entry.writeTime, nanos);
+                if(entry.isExpired(now)) {
+                    // the wheel has already passed an overdue deadline's bucket
+                    removeExpired(entry);
+                } else {
+                    scheduleExpiry(entry);
+                }
+            }
+        } finally {
+            unlockForWrite();
+        }
+    }
+
     @Override
     public CacheStats getStats() {
         return stats;
@@ -205,6 +527,11 @@ public class LRUCache<K, V> implements Cache<K, V> {
 
     @Override
     public void shutdown() {
+        LRUCacheManagement.unregister(objectName);
+        if(!ownsCleanupExecutor) {
+            cleanupTask.cancel(false);
+            return;
+        }
         cleanupExecutor.shutdown();
         try {
             if (!cleanupExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -216,92 +543,464 @@ public class LRUCache<K, V> implements Cache<K, V> {
         }
     }
 
-    private Optional<V> loadAndCache(K key) {
-        CacheLoader<K,V> loader = config.getCacheLoader();
+    /**
+     * Reloads a stale entry on the configured executor while readers keep getting the current
+     * value. Shares the in-flight map with loadAndCache, so at most one load or refresh runs per
+     * key. The reloaded value is dropped if the entry was replaced or removed in the meantime.
+     */
+    private void refresh(CacheEntry<K,V> entry) {
+        K key = entry.key;
+        CompletableFuture<V> reload = new CompletableFuture<>();
+        if(inFlightLoads.putIfAbsent(key, reload) != null) {
+            return;
+        }
+
         try {
+            config.getExecutor().execute(() -> {
+                CacheLoadEvent event = new CacheLoadEvent();
+                event.begin();
+                long loadStart = System.nanoTime();
+                try {
+                    V loaded = config.getCacheLoader().load(key);
+                    event.finish(name, key.hashCode(), 1, true);
+                    if(config.isRecordStats()) stats.recordLoad(System.nanoTime() - loadStart);
+                    if(loaded != null) {
+                        lockForWrite("refresh");
+                        try {
+                            if(map.get(key) == entry) {
+                                refreshLocked(entry, loaded);
+                            }
+                        } finally {
+                            unlockForWrite();
+                        }
+                    }
+                    reload.complete(loaded);
+                } catch (CacheLoadException e) {
+                    // keep serving the current value until it expires
+                    event.finish(name, key.hashCode(), 1, false);
+                    if(config.isRecordStats()) stats.recordLoadFail(System.nanoTime() - loadStart);
+                    LOGGER.log(Level.WARNING, "Refresh failed for key: " + key, e);
+                    reload.completeExceptionally(e);
+                } catch (RuntimeException | Error e) {
+                    event.finish(name, key.hashCode(), 1, false);
+                    LOGGER.log(Level.WARNING, "Refresh failed for key: " + key, e);
+                    reload.completeExceptionally(e);
+                } finally {
+                    inFlightLoads.remove(key, reload);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlightLoads.remove(key, reload);
+            reload.complete(valueOf(entry));
+            LOGGER.log(Level.WARNING, "Refresh rejected for key: " + key, e);
+        }
+    }
+
+    /** Loads {@code keys} through the bulk loader without caching the result. */
+    Map<K, V> bulkLoad(Set<K> keys) {
+        CacheLoadEvent event = new CacheLoadEvent();
+        event.begin();
+        long loadStart = System.nanoTime();
+        try {
+            Map<K, V> loaded = config.getBulkLoader().loadAll(Collections.unmodifiableSet(keys));
+            event.finish(name, 0, keys.size(), true);
+            if(config.isRecordStats()) stats.recordLoad(System.nanoTime() - loadStart);
+            return loaded == null ? Collections.emptyMap() : loaded;
+        } catch (CacheLoadException e) {
+            event.finish(name, 0, keys.size(), false);
+            if(config.isRecordStats()) stats.recordLoadFail(System.nanoTime() - loadStart);
+            LOGGER.log(Level.WARNING, "BulkCacheLoader failed for " + keys.size() + " keys", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    // single-flight: one thread runs the loader per key, concurrent missers wait for its outcome
+    Optional<V> loadAndCache(K key) {
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = inFlightLoads.putIfAbsent(key, load);
+        if(inFlight != null) {
+            if(config.isRecordStats()) stats.recordCoalescedLoad();
+            return awaitLoad(inFlight);
+        }
+
+        CacheLoadEvent event = new CacheLoadEvent();
+        event.begin();
+        long loadStart = 0L; // read just before the loader runs; only the loader throws CacheLoadException
+        try {
+            // a load for this key may have completed between our miss and winning the race
+            CacheEntry<K,V> entry = map.get(key);
+            V cached = entry != null && !isExpired(entry, ticker.read()) ? valueOf(entry) : null;
+            if(cached != null) {
+                load.complete(cached);
+                return Optional.of(cached);
+            }
+
+            CacheLoader<K,V> loader = config.getCacheLoader();
+            loadStart = System.nanoTime();
             V loaded = loader.load(key);
-            if(config.isRecordStats()) stats.recordLoad();
+            event.finish(name, key.hashCode(), 1, true);
+            if(config.isRecordStats()) stats.recordLoad(System.nanoTime() - loadStart);
             if(loaded != null) {
                 put(key, loaded);
-                return Optional.of(loaded);
             }
+            load.complete(loaded);
+            return Optional.ofNullable(loaded);
         } catch (CacheLoadException e) {
-            if(config.isRecordStats()) stats.recordLoadFail();
+            event.finish(name, key.hashCode(), 1, false);
+            if(config.isRecordStats()) stats.recordLoadFail(System.nanoTime() - loadStart);
             LOGGER.log(Level.WARNING, "CacheLoader failed for key: " + key, e);
+            load.completeExceptionally(e);
+            return Optional.empty();
+        } catch (RuntimeException | Error e) {
+            event.finish(name, key.hashCode(), 1, false);
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(key, load);
         }
-        return Optional.empty();
     }
 
-    private void addToHead(CacheEntry<K, V> entry) {
-        entry.prev = head;
-        entry.next = head.next;
-        head.next.prev = entry;
-        head.next = entry;
+    // waiters see the loading thread's outcome: a CacheLoadException becomes an empty result
+    // (the loading thread already logged and counted it), anything else is rethrown
+    private Optional<V> awaitLoad(CompletableFuture<V> inFlight) {
+        try {
+            return Optional.ofNullable(inFlight.join());
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof CacheLoadException) {
+                return Optional.empty();
+            }
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
     }
 
-    private void unlinkEntry(CacheEntry<K, V> entry) {
-        entry.prev.next = entry.next;
-        entry.next.prev = entry.prev;
+    // caller must hold the write lock
+    private void putLocked(K key, V value) {
+        int weight = weigh(key, value);
+        byte[] bytes = serialize(value);
+        CacheEntry<K,V> existing = map.get(key);
+        if(!fits(weight, bytes)) {
+            // could never fit, and keeping the old value would serve a stale mapping
+            if(existing != null) removeEntry(existing, RemovalCause.REPLACED);
+            notifyRemoval(key, value, RemovalCause.SIZE);
+            LOGGER.fine(() -> "Refused entry larger than the cache bounds, key: " + key);
+            return;
+        }
+        long now = ticker.read();
+        RemovalCause cause = existing != null && isExpired(existing, now) ? RemovalCause.EXPIRED : RemovalCause.REPLACED;
+        if(existing != null && replaceValue(existing, value, weight, bytes, now, cause)) {
+            // promote to MRU
+            existing.touch(now);
+            policy.recordAccess(existing);
+        } else {
+            addEntry(key, value, weight, bytes, now);
+        }
+        if(config.isRecordStats()) stats.recordPut();
     }
 
-    private void moveToHead(CacheEntry<K, V> entry) {
-        unlinkEntry(entry);
-        addToHead(entry);
+    // caller must hold the write lock; replaces a value without counting a put or promoting it
+    private void refreshLocked(CacheEntry<K,V> entry, V value) {
+        int weight = weigh(entry.key, value);
+        byte[] bytes = serialize(value);
+        if(!fits(weight, bytes)) {
+            removeEntry(entry, RemovalCause.REPLACED);
+            notifyRemoval(entry.key, value, RemovalCause.SIZE);
+            return;
+        }
+        replaceValue(entry, value, weight, bytes, ticker.read(), RemovalCause.REPLACED);
+        evictOverflow();
     }
 
-    private void removeEntry(CacheEntry<K, V> entry) {
-        map.remove(entry.key);
-        unlinkEntry(entry);
+    // caller must hold the write lock; false if the entry was evicted to make room for the new value
+    private boolean replaceValue(CacheEntry<K,V> entry, V value, int weight, byte[] bytes, long now, RemovalCause cause) {
+        V old = removalDispatcher != null ? valueOf(entry) : null;
+        long address = -1L;
+        if(bytes != null) {
+            freeChunk(entry);
+            address = allocateChunk(bytes.length);
+            if(map.get(entry.key) != entry) {
+                offHeap.free(address);
+                // evicted after its chunk was freed, so the eviction itself had no value to report
+                notifyRemoval(entry.key, old, RemovalCause.SIZE);
+                return false;
+            }
+        }
+        updateEntry(entry, value, now);
+        weightedSize += weight - entry.weight;
+        entry.weight = weight;
+        if(bytes != null) writeChunk(entry, address, bytes);
+        if(old != value) notifyRemoval(entry.key, old, cause);
+        return true;
     }
 
-    private void evictLRU() {
-        CacheEntry<K, V> lru = tail.prev;
-        if (lru == head) return;
-        removeEntry(lru);
-        if(config.isRecordStats()) stats.recordEviction();
-        LOGGER.fine(() -> "Evicted LRU entry with key: " + lru.key);
+    private boolean fits(int weight, byte[] bytes) {
+        return weight <= maximumWeight && weight <= maximumEntryWeight && (bytes == null || bytes.length <= offHeap.maxChunkSize());
     }
 
-    private void cleanupExpiredEntries() {
-        List<K> expiredKeys = new ArrayList<>();
-        readLock.lock();
+    private byte[] serialize(V value) {
+        if(offHeap == null) return null;
+        return Objects.requireNonNull(config.getSerializer().serialize(value), "serializer returned null");
+    }
 
-        try {
-            for(CacheEntry<K, V> entry : map.values()) {
-                if(entry.isExpired(config.getTtlSeconds())) {
-                    expiredKeys.add(entry.key);
-                }
+    // caller must hold the write lock; evicts LRU entries only until a chunk of this size, or a
+    // whole page for its class, is free
+    private long allocateChunk(int length) {
+        long address;
+        while((address = offHeap.allocate(length)) < 0) {
+            if(!evict()) {
+                throw new IllegalStateException("No off-heap page is free although the cache is empty");
             }
+        }
+        return address;
+    }
+
+    private void writeChunk(CacheEntry<K,V> entry, long address, byte[] bytes) {
+        OffHeapEntry<K,V> offHeapEntry = (OffHeapEntry<K,V>) entry;
+        offHeap.write(address, bytes);
+        offHeapEntry.address = address;
+        offHeapEntry.length = bytes.length;
+    }
+
+    // caller must hold the write lock
+    private void freeChunk(CacheEntry<K,V> entry) {
+        OffHeapEntry<K,V> offHeapEntry = (OffHeapEntry<K,V>) entry;
+        if(offHeapEntry.address >= 0) {
+            offHeap.free(offHeapEntry.address);
+            offHeapEntry.address = -1L;
+        }
+    }
+
+    // off-heap values are read under the read lock so no writer can free and reuse the chunk
+    // mid-read; null if the entry was removed since it was looked up
+    private V valueOf(CacheEntry<K,V> entry) {
+        if(offHeap == null) return entry.value;
+        OffHeapEntry<K,V> offHeapEntry = (OffHeapEntry<K,V>) entry;
+        lockForRead("offHeapRead");
+        try {
+            if(offHeapEntry.address < 0) return null;
+            return config.getSerializer().deserialize(offHeap.read(offHeapEntry.address, offHeapEntry.length));
         } finally {
             readLock.unlock();
         }
+    }
+
+    private int weigh(K key, V value) {
+        int weight = weigher.weigh(key, value);
+        if(weight < 0) {
+            throw new IllegalArgumentException("Weigher returned a negative weight for key: " + key);
+        }
+        return weight;
+    }
+
+    // caller must hold the write lock
+    private void addEntry(K key, V value, int weight, byte[] bytes, long now) {
+        // reserve the chunk before the entry exists, so making room can't evict the entry itself
+        long address = bytes == null ? -1L : allocateChunk(bytes.length);
+        CacheEntry<K,V> newEntry = bytes == null ? new CacheEntry<>(key, value, now) : new OffHeapEntry<>(key, now);
+        if(bytes != null) writeChunk(newEntry, address, bytes);
+        newEntry.weight = weight;
+        weightedSize += weight;
+        map.put(key, newEntry);
+        policy.recordAdd(newEntry);
+        newEntry.expiresAt = deadline(now, expiry.expireAfterCreate(key, value));
+        scheduleExpiry(newEntry);
+    }
+
+    // caller must hold the write lock; a write restarts the entry's refresh clock
+    private void updateEntry(CacheEntry<K,V> entry, V value, long now) {
+        long remaining = remaining(entry, now);
+        entry.value = offHeap == null ? value : null;
+        entry.writeTime = now;
+        entry.expiresAt = deadline(now, expiry.expireAfterUpdate(entry.key, value, remaining));
+        scheduleExpiry(entry);
+    }
 
-        if(expiredKeys.isEmpty()) return;
+    // lock-free: only the deadline moves here, the timer wheel catches up when the read buffer drains
+    private void expireAfterRead(CacheEntry<K,V> entry, V value, long now) {
+        if(!config.hasExpiry()) return; // a plain TTL never moves on read
+        long remaining = remaining(entry, now);
+        long duration = expiry.expireAfterRead(entry.key, value, remaining);
+        if(duration != remaining) {
+            entry.expiresAt = deadline(now, duration);
+        }
+    }
+
+    // caller must hold the write lock
+    private void scheduleExpiry(CacheEntry<K,V> entry) {
+        if(entry.expiresAt == CacheEntry.NEVER) {
+            timerWheel.deschedule(entry);
+        } else {
+            timerWheel.reschedule(entry);
+        }
+    }
+
+    // ticker readings may wrap, so deadlines are compared by difference; anything longer than
+    // half the range (about 146 years) is treated as never expiring
+    private static long deadline(long now, long duration) {
+        if(duration <= 0L) return now;
+        return duration >= MAX_DURATION ? CacheEntry.NEVER : now + duration;
+    }
 
+    private boolean isExpired(CacheEntry<K,V> entry, long now) {
+        return entry.isExpired(now) || entry.isIdle(now, expireAfterAccessNanos);
+    }
+
+    private static long remaining(CacheEntry<?, ?> entry, long now) {
+        long expiresAt = entry.expiresAt;
+        return expiresAt == CacheEntry.NEVER ? Expiry.NEVER : Math.max(0L, expiresAt - now);
+    }
+
+    // caller must hold the write lock; evicts the whole overflow of a put or batch in one pass.
+    // The policy may pick a just-inserted entry, e.g. when W-TinyLFU rejects a newcomer.
+    private void evictOverflow() {
+        if(weightedSize > maximumWeight) {
+            CacheEvictionBurstEvent event = new CacheEvictionBurstEvent();
+            event.begin();
+            int evicted = 0;
+            while(weightedSize > maximumWeight && evict()) {
+                evicted++; // keep evicting from the tail until everything fits
+            }
+            event.finish(name, evicted, weightedSize);
+        }
+        // a weight bound, or a raised capacity, can hold more entries than the policy was sized for
+        policy.ensureCapacity(map.size());
+    }
+
+    // releases the write lock, then hands the removals made under it to the listener; a nested
+    // hold leaves them for the outermost unlock so the listener never runs under the lock
+    private void unlockForWrite() {
+        if(removalDispatcher == null || pendingRemovals.isEmpty() || lock.getWriteHoldCount() > 1) {
+            writeLock.unlock();
+            return;
+        }
+        List<RemovalDispatcher.Removal<K, V>> removals = pendingRemovals;
+        pendingRemovals = new ArrayList<>();
+        writeLock.unlock();
+        removalDispatcher.publish(removals);
+    }
+
+    // caller must hold the write lock; null values are off-heap chunks that were already freed
+    private void notifyRemoval(K key, V value, RemovalCause cause) {
+        if(removalDispatcher != null && value != null) {
+            pendingRemovals.add(new RemovalDispatcher.Removal<>(key, value, cause));
+        }
+    }
+
+    // contended acquisitions only, so an uncontended write pays for the lock and nothing else
+    private void lockForWrite(String operation) {
+        if(writeLock.tryLock()) return;
+        CacheLockWaitEvent event = new CacheLockWaitEvent();
+        event.begin();
         writeLock.lock();
-        try {
-            for(K key : expiredKeys) {
-                CacheEntry<K,V> entry = map.get(key);
-                if(entry != null && entry.isExpired(config.getTtlSeconds())) {
-                    removeEntry(entry);
-                    if(config.isRecordStats()) {
-                        stats.recordExpired();
-                        stats.recordEviction();
-                    }
+        event.finish(name, operation, true);
+    }
+
+    private void lockForRead(String operation) {
+        if(readLock.tryLock()) return;
+        CacheLockWaitEvent event = new CacheLockWaitEvent();
+        event.begin();
+        readLock.lock();
+        event.finish(name, operation, false);
+    }
+
+    private void afterRead(CacheEntry<K, V> entry) {
+        if(readBuffer.offer(entry) && writeLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                unlockForWrite();
+            }
+        }
+    }
+
+    // caller must hold the write lock
+    private void drainReadBuffer() {
+        readBuffer.drainTo(entry -> {
+            // skip entries removed since the hit was buffered
+            if(map.get(entry.key) == entry) {
+                policy.recordAccess(entry);
+                if(config.hasExpiry()) {
+                    scheduleExpiry(entry); // expireAfterRead may have moved the deadline
                 }
             }
+        });
+    }
+
+    private void removeEntry(CacheEntry<K, V> entry, RemovalCause cause) {
+        if(removalDispatcher != null) notifyRemoval(entry.key, valueOf(entry), cause);
+        map.remove(entry.key);
+        weightedSize -= entry.weight;
+        if(offHeap != null) freeChunk(entry);
+        policy.remove(entry);
+        timerWheel.deschedule(entry);
+    }
+
+    private boolean evict() {
+        CacheEntry<K, V> victim = policy.selectVictim();
+        if (victim == null) return false;
+        removeEntry(victim, RemovalCause.SIZE);
+        if(config.isRecordStats()) stats.recordEviction();
+        LOGGER.fine(() -> "Evicted entry with key: " + victim.key);
+        return true;
+    }
+
+    // only the timer wheel buckets that have elapsed are visited, and idle entries are peeled
+    // off the cold end of the access order, so the work (and the time spent holding the write
+    // lock) is proportional to the number of entries that expire
+    private void cleanupExpiredEntries() {
+        CacheCleanupSweepEvent event = new CacheCleanupSweepEvent();
+        event.begin();
+        long cleanupStart = System.nanoTime();
+        int scanned;
+        int expired;
+        long lockHeld;
+        lockForWrite("cleanup");
+        long lockedAt = System.nanoTime();
+        try {
+            int sizeBefore = map.size();
+            long now = ticker.read();
+            scanned = timerWheel.advance(now, this::removeExpired);
+            if(expireAfterAccessNanos > 0) {
+                drainReadBuffer(); // buffered hits must be promoted before the tail is trusted
+                int[] inspected = {0};
+                policy.removeIdle(entry -> {
+                    inspected[0]++;
+                    return entry.isIdle(now, expireAfterAccessNanos);
+                }, this::removeExpired);
+                scanned += inspected[0];
+            }
+            expired = sizeBefore - map.size();
         } finally {
-            writeLock.unlock();
+            unlockForWrite();
+            lockHeld = System.nanoTime() - lockedAt;
         }
+        event.finish(name, scanned, expired, lockHeld);
+        if(config.isRecordStats()) stats.recordCleanupTime(System.nanoTime() - cleanupStart);
 
-        LOGGER.fine(() -> "Cleaned up " + expiredKeys.size() + " expired cache entries");
+        if(expired == 0) return;
+        LOGGER.fine(() -> "Cleaned up " + expired + " expired cache entries");
+    }
+
+    // caller must hold the write lock
+    private void removeExpired(CacheEntry<K, V> entry) {
+        removeEntry(entry, RemovalCause.EXPIRED);
+        if(config.isRecordStats()) {
+            stats.recordExpired();
+            stats.recordEviction();
+        }
     }
 
     @Override
     public String toString() {
         return "LRUCache{" +
                 "size=" + size() +
-                "capacity=" + config.getCapacity() +
+                "capacity=" + capacity +
                 "stats=" + stats +
                 '}';
     }
@@ -0,0 +1,49 @@
+package core;
+
+/**
+ * JMX view of an {@link LRUCache}, registered as {@code lru.cache:type=LRUCache,name="<name>"}
+ * when the cache is created and unregistered on {@link LRUCache#shutdown()}. Reading an
+ * attribute never takes the cache's lock; each stats attribute reads the live counters.
+ */
+public interface LRUCacheMXBean {
+
+    long getSize();
+
+    int getCapacity();
+
+    /** Resizes the cache, evicting LRU entries at once if it shrinks. */
+    void setCapacity(int capacity);
+
+    /**
+     * TTL in milliseconds, rounded up so it is never 0; -1 if a per-entry {@code Expiry} decides
+     * each entry's lifetime instead, in which case {@link #setTtlMillis} is rejected.
+     */
+    long getTtlMillis();
+
+    /** Changes the TTL of every entry, counted from its last write. */
+    void setTtlMillis(long ttlMillis);
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getEvictionCount();
+
+    long getExpiredCount();
+
+    long getPutCount();
+
+    long getLoadCount();
+
+    long getLoadFailCount();
+
+    long getCoalescedLoadCount();
+
+    long getTotalLoadTimeNanos();
+
+    double getAverageLoadPenaltyNanos();
+
+    void resetStats();
+}
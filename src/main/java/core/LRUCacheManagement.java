@@ -0,0 +1,150 @@
+package core;
+
+import stats.CacheStats;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** {@link LRUCacheMXBean} backed by a live cache, plus its registration with the platform MBean server. */
+final class LRUCacheManagement implements LRUCacheMXBean {
+
+    private static final Logger LOGGER = Logger.getLogger(LRUCacheManagement.class.getName());
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final LRUCache<?, ?> cache;
+
+    private LRUCacheManagement(LRUCache<?, ?> cache) {
+        this.cache = cache;
+    }
+
+    /** Returns {@code configured}, or a generated name unique within this JVM if it is null. */
+    static String nameFor(String configured) {
+        return configured != null ? configured : "LRUCache-" + SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * Registers an MBean for {@code cache} under {@code name}. Returns the registered name,
+     * or null if registration failed; a cache works without one.
+     */
+    static ObjectName register(LRUCache<?, ?> cache, String name) {
+        try {
+            ObjectName objectName = new ObjectName("lru.cache:type=LRUCache,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new LRUCacheManagement(cache), objectName);
+            return objectName;
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Could not register MBean for cache: " + name, e);
+            return null;
+        }
+    }
+
+    static void unregister(ObjectName objectName) {
+        if(objectName == null) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if(server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Could not unregister MBean: " + objectName, e);
+        }
+    }
+
+    @Override
+    public long getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return cache.capacity();
+    }
+
+    @Override
+    public void setCapacity(int capacity) {
+        cache.setCapacity(capacity);
+    }
+
+    @Override
+    public long getTtlMillis() {
+        if(cache.hasExpiry()) {
+            return -1L; // the configured TTL is ignored
+        }
+        // rounded up, so a sub-millisecond TTL doesn't read as 0
+        return -Math.floorDiv(-cache.ttlNanos(), TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Override
+    public void setTtlMillis(long ttlMillis) {
+        cache.setTtl(ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long getHitCount() {
+        return stats().getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return stats().getMissCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return stats().hitRate();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return stats().getEvictionCount();
+    }
+
+    @Override
+    public long getExpiredCount() {
+        return stats().getExpiredCount();
+    }
+
+    @Override
+    public long getPutCount() {
+        return stats().getPutCount();
+    }
+
+    @Override
+    public long getLoadCount() {
+        return stats().getLoadCount();
+    }
+
+    @Override
+    public long getLoadFailCount() {
+        return stats().getLoadFailCount();
+    }
+
+    @Override
+    public long getCoalescedLoadCount() {
+        return stats().getCoalescedLoadCount();
+    }
+
+    @Override
+    public long getTotalLoadTimeNanos() {
+        return stats().getTotalLoadTimeNanos();
+    }
+
+    @Override
+    public double getAverageLoadPenaltyNanos() {
+        return stats().averageLoadPenalty();
+    }
+
+    @Override
+    public void resetStats() {
+        stats().reset();
+    }
+
+    private CacheStats stats() {
+        return cache.getStats();
+    }
+}
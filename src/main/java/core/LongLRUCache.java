@@ -0,0 +1,374 @@
+package core;
+
+import config.AdmissionPolicy;
+import config.CacheConfig;
+import loader.CacheLoadException;
+import stats.CacheStats;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * LRU cache keyed by primitive {@code long}s. Keys, values and write times live in parallel
+ * arrays indexed by slot, LRU order is kept by an {@link IndexDeque}, and an open-addressing
+ * table with linear probing maps keys to slots, so there is no boxing and no per-entry node.
+ * A second int-linked list keeps slots in write order, so cleanup peels expired entries off its
+ * head in bounded batches instead of sweeping every slot under the write lock.
+ * Hits are optimistic reads that allocate nothing and never touch the lock; their promotions
+ * go to an {@link IndexReadBuffer} and are replayed under the write lock before an eviction or
+ * when a stripe fills. The buffer drops hits when full, so LRU order is approximate under load.
+ * Supports capacity, TTL, stats and a loader; other {@link CacheConfig} options are rejected.
+ */
+public class LongLRUCache<V> {
+
+    private static final Logger LOGGER = Logger.getLogger(LongLRUCache.class.getName());
+    static final int MAX_CAPACITY = 1 << 29; // largest capacity whose hash table size fits an int
+
+    private final int capacity;
+    private final long[] keys;
+    private final Object[] values; // null marks a free slot
+    private final long[] writeTimes;
+    private final int[] table; // hash slot -> entry slot + 1, 0 when empty
+    private final int tableMask;
+    private final IndexDeque order;
+    private final WriteOrderList writeOrder;
+    private final IndexReadBuffer readBuffer = new IndexReadBuffer();
+
+    private final StampedLock lock = new StampedLock();
+
+    private final CacheConfig<Long, V> config;
+    private final CacheStats stats;
+    private final ScheduledExecutorService cleanupExecutor;
+
+    public LongLRUCache(CacheConfig<Long, V> config) {
+        this.config = Objects.requireNonNull(config, "config must not be null");
+        if(config.getAdmissionPolicy() != AdmissionPolicy.ALWAYS || config.hasExpiry() || config.isWeighted()
+                || config.isOffHeap() || config.isRefreshAfterWrite() || config.isExpireAfterAccess()
+                || config.hasBulkLoader() || config.hasRemovalListener()) {
+            throw new IllegalArgumentException("LongLRUCache supports only capacity, TTL, stats and a loader");
+        }
+        if(config.getCapacity() > MAX_CAPACITY) {
+            throw new IllegalArgumentException("LongLRUCache capacity must not exceed " + MAX_CAPACITY);
+        }
+        this.capacity = config.getCapacity();
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.writeTimes = new long[capacity];
+        // at most half full, so probe sequences stay short
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) - 1) << 2;
+        this.table = new int[tableSize];
+        this.tableMask = tableSize - 1;
+        this.order = new IndexDeque(capacity);
+        this.writeOrder = new WriteOrderList(capacity);
+        this.stats = new CacheStats();
+
+        this.cleanupExecutor = LRUCache.newCleanupExecutor();
+        cleanupExecutor.scheduleAtFixedRate(
+                this::cleanupExpiredEntries,
+                config.getCleanupIntervalNanos(),
+                config.getCleanupIntervalNanos(),
+                TimeUnit.NANOSECONDS
+        );
+    }
+
+    /** Returns the value for {@code key}, or null on a miss the loader (if any) couldn't fill. */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index;
+        Object value;
+        long writeTime;
+
+        long stamp = lock.tryOptimisticRead();
+        index = indexOf(key);
+        value = index < 0 ? null : values[index];
+        writeTime = index < 0 ? 0L : writeTimes[index];
+        if(!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                index = indexOf(key);
+                value = index < 0 ? null : values[index];
+                writeTime = index < 0 ? 0L : writeTimes[index];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        if(value != null && !isExpired(writeTime)) {
+            // CACHE HIT - the promotion is buffered, so hits don't invalidate optimistic reads
+            afterRead(index);
+            if(config.isRecordStats()) stats.recordHit();
+            return (V) value;
+        }
+
+        // CACHE MISS or EXPIRED
+        if(config.isRecordStats()) stats.recordMiss();
+
+        if(value != null) {
+            long ws = lock.writeLock();
+            try {
+                int current = indexOf(key);
+                if(current >= 0 && isExpired(writeTimes[current])) {
+                    removeIndex(current);
+                    if(config.isRecordStats()) stats.recordExpired();
+                }
+            } finally {
+                lock.unlockWrite(ws);
+            }
+        }
+
+        if(config.hasLoader()) {
+            return loadAndCache(key);
+        }
+        return null;
+    }
+
+    public void put(long key, V value) {
+        Objects.requireNonNull(value, "value must not be null");
+
+        long stamp = lock.writeLock();
+        try {
+            int index = indexOf(key);
+            if(index >= 0) {
+                values[index] = value;
+                writeTimes[index] = config.getTicker().read();
+                order.moveToFront(index);
+                writeOrder.moveToLast(index);
+            } else {
+                if(order.size() == capacity) {
+                    drainReadBuffer(); // replay buffered hits so the victim really is the LRU entry
+                    evict();
+                }
+                index = order.allocate();
+                keys[index] = key;
+                values[index] = value;
+                writeTimes[index] = config.getTicker().read();
+                insertIntoTable(key, index);
+                writeOrder.addLast(index);
+            }
+            if(config.isRecordStats()) stats.recordPut();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(long key) {
+        long stamp = lock.writeLock();
+        try {
+            int index = indexOf(key);
+            if(index < 0) return false;
+            removeIndex(index);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean containsKey(long key) {
+        long stamp = lock.readLock();
+        try {
+            int index = indexOf(key);
+            return index >= 0 && !isExpired(writeTimes[index]);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return order.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            Arrays.fill(table, 0);
+            Arrays.fill(values, null);
+            order.clear();
+            readBuffer.clear();
+            writeOrder.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    public void shutdown() {
+        cleanupExecutor.shutdown();
+        try {
+            if (!cleanupExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                cleanupExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            cleanupExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private V loadAndCache(long key) {
+        long loadStart = System.nanoTime();
+        try {
+            V loaded = config.getCacheLoader().load(key);
+            if(config.isRecordStats()) stats.recordLoad(System.nanoTime() - loadStart);
+            if(loaded != null) {
+                put(key, loaded);
+            }
+            return loaded;
+        } catch (CacheLoadException e) {
+            if(config.isRecordStats()) stats.recordLoadFail(System.nanoTime() - loadStart);
+            LOGGER.log(Level.WARNING, "CacheLoader failed for key: " + key, e);
+            return null;
+        }
+    }
+
+    // may run under an optimistic read, so it must terminate and stay in bounds on torn state
+    private int indexOf(long key) {
+        int slot = spread(key) & tableMask;
+        for(int probes = 0; probes <= tableMask; probes++) {
+            int ref = table[slot];
+            if(ref == 0) {
+                return -1;
+            }
+            if(keys[ref - 1] == key) {
+                return ref - 1;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+        return -1;
+    }
+
+    // caller must hold the write lock
+    private void insertIntoTable(long key, int index) {
+        int slot = spread(key) & tableMask;
+        while(table[slot] != 0) {
+            slot = (slot + 1) & tableMask;
+        }
+        table[slot] = index + 1;
+    }
+
+    // caller must hold the write lock; backward-shift deletion keeps probe chains intact
+    // without tombstones
+    private void removeFromTable(long key) {
+        int hole = spread(key) & tableMask;
+        while(keys[table[hole] - 1] != key) {
+            hole = (hole + 1) & tableMask;
+        }
+
+        int slot = hole;
+        while(true) {
+            slot = (slot + 1) & tableMask;
+            int ref = table[slot];
+            if(ref == 0) {
+                break;
+            }
+            int home = spread(keys[ref - 1]) & tableMask;
+            // shift back if the hole lies on the probe path from this key's home slot
+            if(((slot - home) & tableMask) >= ((slot - hole) & tableMask)) {
+                table[hole] = ref;
+                hole = slot;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    // caller must hold the write lock
+    private void removeIndex(int index) {
+        removeFromTable(keys[index]);
+        values[index] = null;
+        order.free(index);
+        writeOrder.remove(index);
+    }
+
+    // buffers the hit; a full stripe is replayed if the write lock is free, else the hit may be dropped
+    private void afterRead(int index) {
+        if(readBuffer.offer(index)) {
+            long ws = lock.tryWriteLock();
+            if(ws != 0L) {
+                try {
+                    drainReadBuffer();
+                } finally {
+                    lock.unlockWrite(ws);
+                }
+            }
+        }
+    }
+
+    // caller must hold the write lock; slots freed since the hit are skipped
+    private void drainReadBuffer() {
+        readBuffer.drainTo(index -> {
+            if(values[index] != null) order.moveToFront(index);
+        });
+    }
+
+    // caller must hold the write lock
+    private void evict() {
+        int victim = order.last();
+        long key = keys[victim];
+        removeIndex(victim);
+        if(config.isRecordStats()) stats.recordEviction();
+        LOGGER.fine(() -> "Evicted entry with key: " + key);
+    }
+
+    private boolean isExpired(long writeTime) {
+        long ttlNanos = config.getTtlNanos();
+        return ttlNanos > 0 && (config.getTicker().read() - writeTime) > ttlNanos;
+    }
+
+    // peels expired slots off the oldest end of the write order, taking the write lock once per
+    // batch so readers get in between batches instead of waiting out the whole sweep
+    private void cleanupExpiredEntries() {
+        int removed = 0;
+        int batch;
+        do {
+            batch = 0;
+            long stamp = lock.writeLock();
+            try {
+                int index;
+                while(batch < LRUCache.CLEANUP_BATCH_SIZE
+                        && (index = writeOrder.first()) >= 0 && isExpired(writeTimes[index])) {
+                    removeIndex(index);
+                    batch++;
+                    if(config.isRecordStats()) {
+                        stats.recordExpired();
+                        stats.recordEviction();
+                    }
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            removed += batch;
+        } while(batch == LRUCache.CLEANUP_BATCH_SIZE);
+
+        int cleaned = removed;
+        LOGGER.fine(() -> "Cleaned up " + cleaned + " expired cache entries");
+    }
+
+    private static int spread(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "LongLRUCache{" +
+                "size=" + size() +
+                ", capacity=" + capacity +
+                ", stats=" + stats +
+                '}';
+    }
+}
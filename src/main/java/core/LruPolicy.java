@@ -0,0 +1,45 @@
+package core;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/** Plain LRU: every new entry is admitted and the least recently used entry is evicted. */
+final class LruPolicy<K, V> implements EvictionPolicy<K, V> {
+
+    private final AccessOrderDeque<K, V> deque = new AccessOrderDeque<>();
+
+    @Override
+    public void recordAdd(CacheEntry<K, V> entry) {
+        deque.addFirst(entry);
+    }
+
+    @Override
+    public void recordAccess(CacheEntry<K, V> entry) {
+        deque.moveToFront(entry);
+    }
+
+    @Override
+    public void remove(CacheEntry<K, V> entry) {
+        deque.remove(entry);
+    }
+
+    @Override
+    public CacheEntry<K, V> selectVictim() {
+        return deque.peekLast();
+    }
+
+    @Override
+    public void removeIdle(Predicate<CacheEntry<K, V>> idle, Consumer<CacheEntry<K, V>> removal) {
+        deque.removeTailWhile(idle, removal);
+    }
+
+    @Override
+    public void ensureCapacity(int entries) {
+        // the list needs no sizing
+    }
+
+    @Override
+    public void clear() {
+        deque.clear();
+    }
+}
@@ -0,0 +1,12 @@
+package core;
+
+/** Entry whose value lives in an {@link OffHeapStore} chunk instead of on the heap. */
+final class OffHeapEntry<K,V> extends CacheEntry<K,V> {
+
+    long address = -1L; // -1 once the chunk has been freed
+    int length;
+
+    OffHeapEntry(K key, long now) {
+        super(key, null, now);
+    }
+}
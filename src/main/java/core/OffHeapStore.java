@@ -0,0 +1,179 @@
+package core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Slab allocator over direct memory. Memory is reserved in pages of up to 1 MiB; a page is cut
+ * into equal chunks of one power-of-two size class when that class needs room, and goes back to
+ * a shared pool of free pages once its last live chunk is freed, so any class can reuse it.
+ * An address packs the page index into the high 32 bits and the offset into the low 32 bits.
+ * Not thread safe; callers hold the cache write lock to allocate or free, and at least the read
+ * lock to read, so a chunk is never reused while it is being read.
+ */
+final class OffHeapStore {
+
+    static final int MAX_PAGE_SIZE = 1 << 20;
+    static final int MIN_CHUNK_SIZE = 64;
+
+    private final int pageSize;
+    private final int maxPages;
+    private final List<Page> pages = new ArrayList<>();
+    private final ArrayDeque<Page> freePages = new ArrayDeque<>();
+    private final Page[] partialPages; // per size class, pages with at least one free chunk
+
+    OffHeapStore(long maxBytes) {
+        long size = Math.min(MAX_PAGE_SIZE, Long.highestOneBit(Math.max(maxBytes, MIN_CHUNK_SIZE)));
+        this.pageSize = (int) size;
+        this.maxPages = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / pageSize));
+        int classes = Integer.numberOfTrailingZeros(pageSize) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE) + 1;
+        this.partialPages = new Page[classes];
+    }
+
+    /** Largest value, in bytes, that a single chunk can hold. */
+    int maxChunkSize() {
+        return pageSize;
+    }
+
+    /**
+     * Returns the address of a chunk that fits {@code length} bytes, or -1 if no page of its size
+     * class has room and no page is free; freeing chunks until a page empties makes room again.
+     */
+    long allocate(int length) {
+        int sizeClass = sizeClass(length);
+        Page page = partialPages[sizeClass];
+        if(page == null) {
+            page = takeFreePage();
+            if(page == null) {
+                return -1L;
+            }
+            page.carve(sizeClass, MIN_CHUNK_SIZE << sizeClass, pageSize);
+            link(page);
+        }
+        int offset = page.freeOffsets[--page.freeCount];
+        page.live++;
+        if(page.freeCount == 0) {
+            unlink(page);
+        }
+        return ((long) page.index << 32) | offset;
+    }
+
+    void write(long address, byte[] bytes) {
+        ByteBuffer buffer = pages.get(page(address)).buffer.duplicate();
+        buffer.position(offset(address));
+        buffer.put(bytes);
+    }
+
+    /** Returns a read-only view of {@code length} bytes at {@code address}. */
+    ByteBuffer read(long address, int length) {
+        ByteBuffer buffer = pages.get(page(address)).buffer.asReadOnlyBuffer();
+        int offset = offset(address);
+        buffer.limit(offset + length).position(offset);
+        return buffer.slice();
+    }
+
+    void free(long address) {
+        Page page = pages.get(page(address));
+        boolean wasFull = page.freeCount == 0;
+        page.freeOffsets[page.freeCount++] = offset(address);
+        page.live--;
+        if(page.live == 0) {
+            if(!wasFull) unlink(page);
+            page.sizeClass = -1;
+            freePages.push(page);
+        } else if(wasFull) {
+            link(page);
+        }
+    }
+
+    /** Returns every page to the operating system once the buffers are collected. */
+    void clear() {
+        pages.clear();
+        freePages.clear();
+        Arrays.fill(partialPages, null);
+    }
+
+    long reservedBytes() {
+        return (long) pages.size() * pageSize;
+    }
+
+    /** Pages that hold no live chunk and can be carved for any size class. */
+    int freePageCount() {
+        return freePages.size();
+    }
+
+    private Page takeFreePage() {
+        Page page = freePages.poll();
+        if(page == null && pages.size() < maxPages) {
+            page = new Page(pages.size(), ByteBuffer.allocateDirect(pageSize));
+            pages.add(page);
+        }
+        return page;
+    }
+
+    private void link(Page page) {
+        Page head = partialPages[page.sizeClass];
+        page.prev = null;
+        page.next = head;
+        if(head != null) head.prev = page;
+        partialPages[page.sizeClass] = page;
+    }
+
+    private void unlink(Page page) {
+        if(page.prev != null) {
+            page.prev.next = page.next;
+        } else {
+            partialPages[page.sizeClass] = page.next;
+        }
+        if(page.next != null) page.next.prev = page.prev;
+        page.prev = null;
+        page.next = null;
+    }
+
+    private static int sizeClass(int length) {
+        int chunk = Math.max(MIN_CHUNK_SIZE, length);
+        int ceil = 32 - Integer.numberOfLeadingZeros(chunk - 1);
+        return ceil - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE);
+    }
+
+    private static int page(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private static final class Page {
+        final int index;
+        final ByteBuffer buffer;
+        int sizeClass = -1;
+        int[] freeOffsets; // stack of free chunk offsets
+        int freeCount;
+        int live; // chunks handed out and not yet freed
+        Page prev;
+        Page next;
+
+        Page(int index, ByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+
+        // splits the page into chunks of one size class
+        void carve(int sizeClass, int chunkSize, int pageSize) {
+            this.sizeClass = sizeClass;
+            int count = pageSize / chunkSize;
+            if(freeOffsets == null || freeOffsets.length < count) {
+                freeOffsets = new int[count];
+            }
+            // push in reverse so chunks are handed out from the start of the page
+            for(int i = 0; i < count; i++) {
+                freeOffsets[i] = (count - 1 - i) * chunkSize;
+            }
+            freeCount = count;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Striped, lossy buffer of cache hits waiting to be replayed against the LRU list.
+ * Readers append without locking; a single drainer (holding the cache write lock)
+ * replays the buffered entries in batches. When a stripe is full, or two readers
+ * race for the same slot, the hit is simply dropped - LRU order is a heuristic and
+ * losing the occasional promotion is far cheaper than contending on the list.
+ */
+final class ReadBuffer<K, V> {
+
+    static final int STRIPE_SIZE = 16;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+    private static final int STRIPE_COUNT = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors() * 2);
+
+    private final Stripe<K, V>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    ReadBuffer() {
+        this.stripes = new Stripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * Records a hit on {@code entry}.
+     *
+     * @return true if the caller's stripe is full and should be drained
+     */
+    boolean offer(CacheEntry<K, V> entry) {
+        return stripes[stripeIndex()].offer(entry);
+    }
+
+    /** Replays all buffered entries into {@code consumer}. Must be called by a single thread at a time. */
+    void drainTo(Consumer<CacheEntry<K, V>> consumer) {
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    /** Discards all buffered entries. Must be called by a single thread at a time. */
+    void clear() {
+        drainTo(entry -> {});
+    }
+
+    private static int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPE_COUNT - 1);
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << (32 - Integer.numberOfLeadingZeros(Math.max(x, 2) - 1));
+    }
+
+    private static final class Stripe<K, V> {
+        private final AtomicReferenceArray<CacheEntry<K, V>> slots = new AtomicReferenceArray<>(STRIPE_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        boolean offer(CacheEntry<K, V> entry) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            long size = tail - head;
+            if (size >= STRIPE_SIZE) {
+                return true;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                slots.lazySet((int) (tail & STRIPE_MASK), entry);
+                return size + 1 >= STRIPE_SIZE;
+            }
+            return false; // lost the race, drop the hit
+        }
+
+        void drainTo(Consumer<CacheEntry<K, V>> consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            while (head < tail) {
+                int index = (int) (head & STRIPE_MASK);
+                CacheEntry<K, V> entry = slots.get(index);
+                if (entry == null) {
+                    break; // slot claimed but not yet published
+                }
+                slots.lazySet(index, null);
+                consumer.accept(entry);
+                head++;
+            }
+            readCounter = head;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package core;
+
+import listener.RemovalCause;
+import listener.RemovalListener;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hands removal notifications to a {@link RemovalListener} on an executor. Notifications go
+ * through a bounded queue drained by one task at a time; when the queue is full, the
+ * publishing thread delivers the oldest notifications itself, so a slow listener slows
+ * writers down instead of growing the queue or losing removals. Publishers must not hold the
+ * cache lock.
+ */
+final class RemovalDispatcher<K, V> {
+
+    private static final Logger LOGGER = Logger.getLogger(RemovalDispatcher.class.getName());
+    static final int QUEUE_CAPACITY = 1024;
+
+    private final RemovalListener<K, V> listener;
+    private final Executor executor;
+    private final ArrayBlockingQueue<Removal<K, V>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    RemovalDispatcher(RemovalListener<K, V> listener, Executor executor) {
+        this.listener = listener;
+        this.executor = executor;
+    }
+
+    void publish(List<Removal<K, V>> removals) {
+        for(Removal<K, V> removal : removals) {
+            while(!queue.offer(removal)) {
+                Removal<K, V> oldest = queue.poll();
+                if(oldest != null) deliver(oldest);
+            }
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if(queue.isEmpty() || !draining.compareAndSet(false, true)) return;
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            LOGGER.log(Level.WARNING, "Removal notifications rejected by the executor, delivering on the caller", e);
+            drain();
+        }
+    }
+
+    private void drain() {
+        try {
+            Removal<K, V> removal;
+            while((removal = queue.poll()) != null) {
+                deliver(removal);
+            }
+        } finally {
+            draining.set(false);
+        }
+        scheduleDrain(); // a publisher may have offered after the last poll but before the flag cleared
+    }
+
+    private void deliver(Removal<K, V> removal) {
+        try {
+            listener.onRemoval(removal.key, removal.value, removal.cause);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "RemovalListener failed for key: " + removal.key, e);
+        }
+    }
+
+    static final class Removal<K, V> {
+        final K key;
+        final V value;
+        final RemovalCause cause;
+
+        Removal(K key, V value, RemovalCause cause) {
+            this.key = key;
+            this.value = value;
+            this.cause = cause;
+        }
+    }
+}
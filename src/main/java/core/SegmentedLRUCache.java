@@ -0,0 +1,230 @@
+package core;
+
+import config.CacheConfig;
+import stats.CacheStats;
+
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LRU cache striped across independent {@link LRUCache} segments. Each segment has its own
+ * map, access-order list, lock and share of the configured capacity, so writes to different
+ * segments never contend. LRU order is exact per segment and approximate across the cache.
+ */
+public class SegmentedLRUCache<K, V> implements Cache<K, V> {
+
+    private static final int DEFAULT_SEGMENT_COUNT = Runtime.getRuntime().availableProcessors();
+
+    private final LRUCache<K, V>[] segments;
+    private final int segmentShift;
+    private final int segmentMask;
+    private final CacheConfig<K, V> config;
+    private final CacheStats stats;
+    private final ScheduledExecutorService cleanupExecutor;
+
+    public SegmentedLRUCache(CacheConfig<K, V> config) {
+        this(config, DEFAULT_SEGMENT_COUNT);
+    }
+
+    @SuppressWarnings("unchecked")
+    public SegmentedLRUCache(CacheConfig<K, V> config, int segmentCount) {
+        this.config = Objects.requireNonNull(config, "config must not be null");
+        if(segmentCount <= 0) {
+            throw new IllegalArgumentException("Segment count must be positive");
+        }
+
+        // power of two so a segment is picked by shifting, but never more segments than entries,
+        // and when bounded by a weigher, never so many that a share is lighter than the heaviest
+        // admissible entry
+        long bound = config.isWeighted() ? config.getMaximumWeight() : config.getCapacity();
+        long minShare = config.isWeighted() ? config.getMaximumEntryWeight() : 1;
+        int count = 1;
+        while(count < segmentCount && bound / (count * 2L) >= minShare) {
+            count <<= 1;
+        }
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+        this.segmentMask = count - 1;
+
+        this.stats = new CacheStats();
+        this.cleanupExecutor = LRUCache.newCleanupExecutor();
+        this.segments = new LRUCache[count];
+        for(int i = 0; i < count; i++) {
+            segments[i] = new LRUCache<>(config, i, count, stats, cleanupExecutor);
+        }
+    }
+
+    @Override
+    public Optional<V> get(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+        return segmentFor(key).get(key);
+    }
+
+    @Override
+    public Map<K, V> getAll(Collection<K> keys) {
+        Objects.requireNonNull(keys, "keys must not be null");
+
+        List<List<K>> keysBySegment = groupBySegment(keys);
+        Map<K, V> result = new LinkedHashMap<>();
+        Set<K> misses = new LinkedHashSet<>();
+        for(int i = 0; i < segments.length; i++) {
+            if(!keysBySegment.get(i).isEmpty()) {
+                result.putAll(segments[i].getAllPresent(keysBySegment.get(i), misses));
+            }
+        }
+        if(misses.isEmpty()) {
+            return Collections.unmodifiableMap(result);
+        }
+
+        if(config.hasBulkLoader()) {
+            // one backend round-trip across all segments, then one write per segment
+            Map<K, V> loaded = segments[0].bulkLoad(misses);
+            List<Map<K, V>> loadedBySegment = new ArrayList<>(segments.length);
+            for(int i = 0; i < segments.length; i++) {
+                loadedBySegment.add(new LinkedHashMap<>());
+            }
+            loaded.forEach((key, value) -> {
+                if(key != null) loadedBySegment.get(segmentIndex(key)).put(key, value);
+            });
+            for(int i = 0; i < segments.length; i++) {
+                segments[i].putEntries(loadedBySegment.get(i));
+            }
+            for(K key : misses) {
+                V value = loaded.get(key);
+                if(value != null) result.put(key, value);
+            }
+        } else if(config.hasLoader()) {
+            for(K key : misses) {
+                segmentFor(key).loadAndCache(key).ifPresent(value -> result.put(key, value));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Objects.requireNonNull(key, "key must not be null");
+        segmentFor(key).put(key, value);
+    }
+
+    @Override
+    public boolean remove(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+        return segmentFor(key).remove(key);
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+        return segmentFor(key).containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for(LRUCache<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for(LRUCache<K, V> segment : segments) {
+            if(!segment.isEmpty()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for(LRUCache<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public void putAll(Map<K, V> entries) {
+        Objects.requireNonNull(entries, "entries must not be null");
+        List<Map<K, V>> bySegment = new ArrayList<>(segments.length);
+        for(int i = 0; i < segments.length; i++) {
+            bySegment.add(new LinkedHashMap<>());
+        }
+        entries.forEach((key, value) -> {
+            Objects.requireNonNull(key, "key must not be null");
+            Objects.requireNonNull(value, "value must not be null");
+            bySegment.get(segmentIndex(key)).put(key, value);
+        });
+        for(int i = 0; i < segments.length; i++) {
+            if(!bySegment.get(i).isEmpty()) {
+                segments[i].putAll(bySegment.get(i));
+            }
+        }
+    }
+
+    @Override
+    public Set<K> keys() {
+        Set<K> keys = new HashSet<>();
+        for(LRUCache<K, V> segment : segments) {
+            keys.addAll(segment.keys());
+        }
+        return Collections.unmodifiableSet(keys);
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    @Override
+    public void shutdown() {
+        for(LRUCache<K, V> segment : segments) {
+            segment.shutdown();
+        }
+        cleanupExecutor.shutdown();
+        try {
+            if (!cleanupExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                cleanupExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            cleanupExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<List<K>> groupBySegment(Collection<K> keys) {
+        List<List<K>> bySegment = new ArrayList<>(segments.length);
+        for(int i = 0; i < segments.length; i++) {
+            bySegment.add(new ArrayList<>());
+        }
+        for(K key : keys) {
+            Objects.requireNonNull(key, "key must not be null");
+            bySegment.get(segmentIndex(key)).add(key);
+        }
+        return bySegment;
+    }
+
+    private LRUCache<K, V> segmentFor(K key) {
+        return segments[segmentIndex(key)];
+    }
+
+    // take the high bits of a mixed hash so segments don't share the low bits each map buckets on
+    private int segmentIndex(K key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h >>> segmentShift) & segmentMask;
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentedLRUCache{" +
+                "size=" + size() +
+                ", capacity=" + config.getCapacity() +
+                ", segments=" + segments.length +
+                ", stats=" + stats +
+                '}';
+    }
+}
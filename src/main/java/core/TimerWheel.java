@@ -0,0 +1,151 @@
+package core;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel indexing entries by {@link CacheEntry#expiresAt}.
+ * Each level is a ring of buckets covering a coarser span of time (about one second,
+ * one minute, one hour, one day and six days per bucket, in nanoseconds). Advancing the
+ * wheel only visits the buckets whose time has elapsed: expired entries are handed to the
+ * caller and entries from coarser levels that are not yet due cascade down to finer ones.
+ * Scheduling, rescheduling and descheduling are O(1).
+ * Not thread safe; callers hold the cache write lock.
+ */
+final class TimerWheel<K, V> {
+
+    static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    static final long[] SPANS = {
+            1L << 30, // 1.07 seconds
+            1L << 36, // 1.15 minutes
+            1L << 42, // 1.22 hours
+            1L << 47, // 1.63 days
+            1L << 49, // 6.52 days
+            1L << 49, // 6.52 days
+    };
+    static final long[] SHIFT = {
+            Long.numberOfTrailingZeros(SPANS[0]),
+            Long.numberOfTrailingZeros(SPANS[1]),
+            Long.numberOfTrailingZeros(SPANS[2]),
+            Long.numberOfTrailingZeros(SPANS[3]),
+            Long.numberOfTrailingZeros(SPANS[4]),
+    };
+
+    private final CacheEntry<K, V>[][] wheel;
+    private long time;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long now) {
+        this.time = now;
+        this.wheel = new CacheEntry[BUCKETS.length][];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new CacheEntry[BUCKETS[i]];
+            for (int j = 0; j < wheel[i].length; j++) {
+                CacheEntry<K, V> sentinel = new CacheEntry<>(null, null, 0L);
+                sentinel.prevInTime = sentinel;
+                sentinel.nextInTime = sentinel;
+                wheel[i][j] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Advances the wheel to {@code now}, handing every entry that has expired to {@code expirer}.
+     * Returns the number of entries visited, expired or cascaded.
+     */
+    int advance(long now, Consumer<CacheEntry<K, V>> expirer) {
+        long previous = time;
+        time = now;
+        long current = now;
+        // ticks are unsigned shifts, so a reading crossing zero would look like time going
+        // backwards; moving both past the sign bit keeps them ordered
+        if (previous < 0L && current > 0L) {
+            previous += Long.MAX_VALUE;
+            current += Long.MAX_VALUE;
+        }
+        int visited = 0;
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = previous >>> SHIFT[i];
+            long currentTicks = current >>> SHIFT[i];
+            long delta = currentTicks - previousTicks;
+            if (delta <= 0L) {
+                break;
+            }
+            visited += expire(i, previousTicks, delta, expirer);
+        }
+        return visited;
+    }
+
+    void schedule(CacheEntry<K, V> entry) {
+        CacheEntry<K, V> sentinel = findBucket(entry.expiresAt);
+        entry.prevInTime = sentinel.prevInTime;
+        entry.nextInTime = sentinel;
+        sentinel.prevInTime.nextInTime = entry;
+        sentinel.prevInTime = entry;
+    }
+
+    void reschedule(CacheEntry<K, V> entry) {
+        deschedule(entry);
+        schedule(entry);
+    }
+
+    void deschedule(CacheEntry<K, V> entry) {
+        if (entry.nextInTime == null) {
+            return; // not scheduled
+        }
+        entry.prevInTime.nextInTime = entry.nextInTime;
+        entry.nextInTime.prevInTime = entry.prevInTime;
+        entry.prevInTime = null;
+        entry.nextInTime = null;
+    }
+
+    void clear() {
+        for (CacheEntry<K, V>[] buckets : wheel) {
+            for (CacheEntry<K, V> sentinel : buckets) {
+                sentinel.prevInTime = sentinel;
+                sentinel.nextInTime = sentinel;
+            }
+        }
+    }
+
+    private int expire(int level, long previousTicks, long delta, Consumer<CacheEntry<K, V>> expirer) {
+        CacheEntry<K, V>[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+        int end = start + steps;
+        int visited = 0;
+
+        for (int i = start; i < end; i++) {
+            CacheEntry<K, V> sentinel = buckets[i & mask];
+            CacheEntry<K, V> entry = sentinel.nextInTime;
+            sentinel.prevInTime = sentinel;
+            sentinel.nextInTime = sentinel;
+
+            while (entry != sentinel) {
+                CacheEntry<K, V> next = entry.nextInTime;
+                entry.prevInTime = null;
+                entry.nextInTime = null;
+                if (entry.expiresAt - time > 0L) {
+                    schedule(entry); // not yet due, cascade to a finer bucket
+                } else {
+                    expirer.accept(entry);
+                }
+                entry = next;
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    private CacheEntry<K, V> findBucket(long expiresAt) {
+        long duration = expiresAt - time;
+        int last = wheel.length - 1;
+        for (int i = 0; i < last; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = expiresAt >>> SHIFT[i];
+                return wheel[i][(int) (ticks & (wheel[i].length - 1))];
+            }
+        }
+        return wheel[last][0];
+    }
+}
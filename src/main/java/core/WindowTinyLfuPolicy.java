@@ -0,0 +1,151 @@
+package core;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * W-TinyLFU: new entries land in a window LRU holding ~1% of the capacity. Entries pushed out
+ * of the window move to the probation segment of a segmented LRU main region, where they are
+ * only kept if the frequency sketch rates them above the main region's LRU victim. A hit in
+ * probation promotes the entry to the protected segment (~80% of the main region).
+ * The sizing grows with the number of resident entries once it outgrows the configured
+ * capacity, as it does in a cache bounded by weight, where that capacity doesn't bound it.
+ */
+final class WindowTinyLfuPolicy<K, V> implements EvictionPolicy<K, V> {
+
+    static final byte WINDOW = 0;
+    static final byte PROBATION = 1;
+    static final byte PROTECTED = 2;
+
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> protectedDeque = new AccessOrderDeque<>();
+    private final FrequencySketch sketch;
+    private int sizedFor;
+    private int windowMaximum;
+    private int protectedMaximum;
+
+    // most recent window evictee that has not yet competed for admission
+    private CacheEntry<K, V> candidate;
+
+    WindowTinyLfuPolicy(int capacity) {
+        this.sketch = new FrequencySketch(capacity);
+        resize(capacity);
+    }
+
+    @Override
+    public void recordAdd(CacheEntry<K, V> entry) {
+        sketch.increment(entry.key);
+        entry.region = WINDOW;
+        window.addFirst(entry);
+
+        while (window.size() > windowMaximum) {
+            CacheEntry<K, V> evictee = window.peekLast();
+            window.remove(evictee);
+            evictee.region = PROBATION;
+            probation.addFirst(evictee);
+            candidate = evictee;
+        }
+    }
+
+    @Override
+    public void recordAccess(CacheEntry<K, V> entry) {
+        sketch.increment(entry.key);
+        switch (entry.region) {
+            case WINDOW:
+                window.moveToFront(entry);
+                break;
+            case PROBATION:
+                probation.remove(entry);
+                entry.region = PROTECTED;
+                protectedDeque.addFirst(entry);
+                if (entry == candidate) {
+                    candidate = null;
+                }
+                demoteProtectedOverflow();
+                break;
+            default:
+                protectedDeque.moveToFront(entry);
+        }
+    }
+
+    @Override
+    public void remove(CacheEntry<K, V> entry) {
+        if (entry == candidate) {
+            candidate = null;
+        }
+        switch (entry.region) {
+            case WINDOW:
+                window.remove(entry);
+                break;
+            case PROBATION:
+                probation.remove(entry);
+                break;
+            default:
+                protectedDeque.remove(entry);
+        }
+    }
+
+    @Override
+    public CacheEntry<K, V> selectVictim() {
+        CacheEntry<K, V> victim = probation.peekLast();
+        if (victim == null || victim == candidate) {
+            victim = protectedDeque.peekLast();
+        }
+
+        if (candidate != null && victim != null) {
+            CacheEntry<K, V> challenger = candidate;
+            candidate = null;
+            // ties go to the resident entry so one-hit wonders and scans can't flush the main region
+            return sketch.frequency(challenger.key) > sketch.frequency(victim.key) ? victim : challenger;
+        }
+        if (victim != null) {
+            return victim;
+        }
+        if (probation.peekLast() != null) {
+            return probation.peekLast();
+        }
+        return window.peekLast();
+    }
+
+    // each segment is in access order on its own; entries demoted from protected to probation
+    // can sit ahead of idler ones, which are then left to be expired lazily on their next read
+    @Override
+    public void removeIdle(Predicate<CacheEntry<K, V>> idle, Consumer<CacheEntry<K, V>> removal) {
+        window.removeTailWhile(idle, removal);
+        probation.removeTailWhile(idle, removal);
+        protectedDeque.removeTailWhile(idle, removal);
+    }
+
+    @Override
+    public void ensureCapacity(int entries) {
+        if (entries > sizedFor) {
+            // doubling keeps the number of sketch reallocations logarithmic
+            resize((int) Math.min(Math.max(entries, 2L * sizedFor), Integer.MAX_VALUE));
+        }
+    }
+
+    @Override
+    public void clear() {
+        window.clear();
+        probation.clear();
+        protectedDeque.clear();
+        candidate = null;
+    }
+
+    private void resize(int capacity) {
+        this.sizedFor = Math.max(1, capacity);
+        this.windowMaximum = Math.max(1, sizedFor / 100);
+        this.protectedMaximum = (int) ((sizedFor - windowMaximum) * 80L / 100);
+        sketch.ensureCapacity(sizedFor);
+    }
+
+    private void demoteProtectedOverflow() {
+        while (protectedDeque.size() > protectedMaximum) {
+            CacheEntry<K, V> demoted = protectedDeque.peekLast();
+            protectedDeque.remove(demoted);
+            demoted.region = PROBATION;
+            probation.addFirst(demoted);
+        }
+    }
+}
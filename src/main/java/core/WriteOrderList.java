@@ -0,0 +1,52 @@
+package core;
+
+/**
+ * Write-order list over the slots {@code 0..capacity-1} of a set of parallel arrays, oldest
+ * write first, linked by {@code int} indices. With one TTL for every entry the oldest write
+ * expires first, so expired slots are peeled off the head without scanning the rest.
+ * Index {@code capacity} is the sentinel.
+ * Not thread safe; callers hold the cache write lock.
+ */
+final class WriteOrderList {
+
+    private final int[] prev;
+    private final int[] next;
+    private final int sentinel;
+
+    WriteOrderList(int capacity) {
+        this.prev = new int[capacity + 1];
+        this.next = new int[capacity + 1];
+        this.sentinel = capacity;
+        clear();
+    }
+
+    /** Links a slot as the newest write. */
+    void addLast(int index) {
+        int last = prev[sentinel];
+        next[index] = sentinel;
+        prev[index] = last;
+        next[last] = index;
+        prev[sentinel] = index;
+    }
+
+    void moveToLast(int index) {
+        remove(index);
+        addLast(index);
+    }
+
+    void remove(int index) {
+        next[prev[index]] = next[index];
+        prev[next[index]] = prev[index];
+    }
+
+    /** Returns the slot written longest ago, or -1 if empty. */
+    int first() {
+        int index = next[sentinel];
+        return index == sentinel ? -1 : index;
+    }
+
+    void clear() {
+        prev[sentinel] = sentinel;
+        next[sentinel] = sentinel;
+    }
+}
@@ -0,0 +1,67 @@
+package expiry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Ticker} that returns a timestamp refreshed by a background daemon thread, so reading
+ * it is a single volatile load. The value lags the real clock by up to one resolution, which
+ * TTLs well above the resolution don't notice.
+ */
+public final class CachedTicker implements Ticker, AutoCloseable {
+
+    private final long resolutionNanos;
+    private final Thread updater;
+    private volatile long now = System.nanoTime();
+    private volatile boolean closed;
+    private final boolean shared;
+
+    public CachedTicker(long resolution, TimeUnit unit) {
+        this(resolution, unit, false);
+    }
+
+    private CachedTicker(long resolution, TimeUnit unit, boolean shared) {
+        if(resolution <= 0) {
+            throw new IllegalArgumentException("Resolution must be positive");
+        }
+        this.resolutionNanos = unit.toNanos(resolution);
+        this.shared = shared;
+        this.updater = new Thread(this::run, "cached-ticker");
+        updater.setDaemon(true);
+        updater.start();
+    }
+
+    /** The ticker behind {@link Ticker#cached()}; its thread starts on the first call. */
+    static CachedTicker shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    @Override
+    public long read() {
+        return now;
+    }
+
+    /** Stops the updater thread; the ticker keeps returning its last value. */
+    @Override
+    public void close() {
+        if(shared) {
+            throw new UnsupportedOperationException("The shared ticker cannot be closed");
+        }
+        closed = true;
+        updater.interrupt();
+    }
+
+    private void run() {
+        while(!closed) {
+            now = System.nanoTime();
+            try {
+                TimeUnit.NANOSECONDS.sleep(resolutionNanos);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static final class SharedHolder {
+        static final CachedTicker INSTANCE = new CachedTicker(1, TimeUnit.MILLISECONDS, true);
+    }
+}
@@ -0,0 +1,44 @@
+package expiry;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes how long each entry stays live, so one cache can hold entries with very different
+ * freshness needs. Durations are in nanoseconds and are measured from the moment of the
+ * create, update or read that triggered the call; {@link #NEVER} keeps the entry until it is
+ * evicted or removed.
+ */
+public interface Expiry<K,V> {
+
+    long NEVER = Long.MAX_VALUE;
+
+    /** Returns how long a newly inserted entry lives. */
+    long expireAfterCreate(K key, V value);
+
+    /**
+     * Returns how long an entry lives after its value is replaced. {@code currentDuration} is
+     * the time it had left. Defaults to starting over as if the entry were new.
+     */
+    default long expireAfterUpdate(K key, V value, long currentDuration) {
+        return expireAfterCreate(key, value);
+    }
+
+    /**
+     * Returns how long an entry lives after a read. {@code currentDuration} is the time it had
+     * left. Defaults to leaving the deadline unchanged.
+     */
+    default long expireAfterRead(K key, V value, long currentDuration) {
+        return currentDuration;
+    }
+
+    /** Every entry lives for {@code duration} after it was last written. */
+    static <K,V> Expiry<K,V> afterWrite(long duration, TimeUnit unit) {
+        Objects.requireNonNull(unit, "unit must not be null");
+        if(duration <= 0) {
+            throw new IllegalArgumentException("Expiry duration must be positive");
+        }
+        long nanos = unit.toNanos(duration);
+        return (key, value) -> nanos;
+    }
+}
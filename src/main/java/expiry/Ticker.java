@@ -0,0 +1,23 @@
+package expiry;
+
+/**
+ * Time source for every TTL, expiry, refresh and access-time decision a cache makes, in
+ * nanoseconds. Only differences between readings are meaningful, as with
+ * {@link System#nanoTime()}. Swap in a fake to test expiration without sleeping, or a
+ * {@link CachedTicker} to take clock reads off the hot path.
+ */
+@FunctionalInterface
+public interface Ticker {
+
+    long read();
+
+    /** Reads the monotonic {@link System#nanoTime()} on every call, so NTP adjustments can't skew expiry. */
+    static Ticker system() {
+        return System::nanoTime;
+    }
+
+    /** Shared {@link CachedTicker} refreshed every millisecond by one daemon thread. */
+    static Ticker cached() {
+        return CachedTicker.shared();
+    }
+}
@@ -0,0 +1,20 @@
+package listener;
+
+/** Why an entry left the cache. */
+public enum RemovalCause {
+    /** Removed by a call to {@code remove}. */
+    EXPLICIT,
+    /** Its value was overwritten by a put or a refresh. */
+    REPLACED,
+    /** Evicted to keep the cache within its capacity, weight or off-heap bounds. */
+    SIZE,
+    /** Its TTL, per-entry expiry or idle timeout ran out. */
+    EXPIRED,
+    /** Dropped by {@code clear()}. */
+    CLEARED;
+
+    /** True if the cache removed the entry on its own rather than because of a caller's write. */
+    public boolean wasEvicted() {
+        return this == SIZE || this == EXPIRED;
+    }
+}
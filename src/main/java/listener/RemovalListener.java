@@ -0,0 +1,15 @@
+package listener;
+
+/**
+ * Notified after an entry leaves the cache, e.g. to release resources held by the value or to
+ * write a dirty value back. Never called while the cache lock is held. Normally called on the
+ * cache's executor; when more than 1024 notifications are waiting, the thread whose
+ * {@code put}, {@code remove} or other write caused the removals delivers the oldest ones
+ * itself, so a slow listener slows writers down rather than losing notifications. The same
+ * happens if the executor rejects the delivery task. Notifications arrive roughly, but not
+ * strictly, in removal order, and a backlog may be delivered from more than one thread at a time.
+ */
+@FunctionalInterface
+public interface RemovalListener<K,V> {
+    void onRemoval(K key, V value, RemovalCause cause);
+}
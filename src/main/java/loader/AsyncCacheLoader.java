@@ -0,0 +1,49 @@
+package loader;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@FunctionalInterface
+public interface AsyncCacheLoader<K,V> {
+
+    /**
+     * Starts loading the value for {@code key}. The returned future completes with the value,
+     * with null if there is none, or exceptionally if the load failed.
+     */
+    CompletableFuture<V> asyncLoad(K key, Executor executor);
+
+    /** Adapts a blocking loader by running it on the cache's executor. */
+    static <K,V> AsyncCacheLoader<K,V> from(CacheLoader<K,V> loader) {
+        Objects.requireNonNull(loader, "loader must not be null");
+        return (key, executor) -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return loader.load(key);
+            } catch (CacheLoadException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Returns an executor that starts a new virtual thread per task, so blocking loaders don't
+     * tie up platform threads. On runtimes without virtual threads (before Java 21) it falls back
+     * to a cached pool of daemon platform threads.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
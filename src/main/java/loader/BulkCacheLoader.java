@@ -0,0 +1,14 @@
+package loader;
+
+import java.util.Map;
+import java.util.Set;
+
+@FunctionalInterface
+public interface BulkCacheLoader<K,V> {
+
+    /**
+     * Loads the values for {@code keys} in one backend round-trip. Keys without a value may be
+     * left out of the result; extra keys returned are cached as well.
+     */
+    Map<K,V> loadAll(Set<K> keys) throws CacheLoadException;
+}
@@ -1,106 +1,236 @@
 package stats;
 
-import java.util.concurrent.atomic.AtomicLong;
-
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache counters. Each counter is a {@link LongAdder}, striped across cells so that threads
+ * recording on different cores don't contend on one cache line; reading a counter sums its
+ * cells. Derived figures such as {@link #hitRate()} are computed from one read of each counter
+ * they use, without copying the latency histograms that {@link #snapshot()} carries.
+ *
+ * <p>Latencies go into {@link LatencyHistogram}s. Hits, misses and puts are timed for one call
+ * in {@value #SAMPLE_RATE}, so the clock reads stay off most fast-path calls; loads and cleanup
+ * runs are rare and slow enough to time every one.
+ */
 public final class CacheStats {
-    private final AtomicLong hitCount = new AtomicLong(0);
-    private final AtomicLong missCount = new AtomicLong(0);
-    private final AtomicLong evictionCount = new AtomicLong(0);
-    private final AtomicLong loadCount = new AtomicLong(0);
-    private final AtomicLong loadFailCount = new AtomicLong(0);
-    private final AtomicLong expiredCount = new AtomicLong(0);
-    private final AtomicLong putCount = new AtomicLong(0);
+
+    /** Returned by {@link #startSample()} for calls that are not timed. */
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+    public static final int SAMPLE_RATE = 16;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadFailCount = new LongAdder();
+    private final LongAdder coalescedLoadCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+    private final LongAdder putCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LatencyHistogram hitLatency = new LatencyHistogram();
+    private final LatencyHistogram missLatency = new LatencyHistogram();
+    private final LatencyHistogram putLatency = new LatencyHistogram();
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+    private final LatencyHistogram cleanupLatency = new LatencyHistogram();
+    // held by reset() and by readers, so a read never mixes cleared and uncleared counters
+    private final Object resetLock = new Object();
+
+    /** Starts timing one in {@value #SAMPLE_RATE} calls; returns {@link #NOT_SAMPLED} for the rest. */
+    public long startSample() {
+        return ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0 ? System.nanoTime() : NOT_SAMPLED;
+    }
+
+    public void recordHitLatency(long sampleStart) {
+        recordSample(hitLatency, sampleStart);
+    }
+
+    public void recordMissLatency(long sampleStart) {
+        recordSample(missLatency, sampleStart);
+    }
+
+    public void recordPutLatency(long sampleStart) {
+        recordSample(putLatency, sampleStart);
+    }
+
+    public void recordCleanupTime(long cleanupNanos) {
+        cleanupLatency.record(cleanupNanos);
+    }
+
+    private static void recordSample(LatencyHistogram histogram, long sampleStart) {
+        if(sampleStart != NOT_SAMPLED) {
+            histogram.record(System.nanoTime() - sampleStart);
+        }
+    }
 
     public void recordHit() {
-        hitCount.incrementAndGet();
+        hitCount.increment();
     }
 
     public void recordMiss() {
-        missCount.incrementAndGet();
+        missCount.increment();
     }
 
     public void recordEviction() {
-        evictionCount.incrementAndGet();
+        evictionCount.increment();
     }
 
     public void recordLoad() {
-        loadCount.incrementAndGet();
+        loadCount.increment();
     }
 
     public void recordLoadFail() {
-        loadFailCount.incrementAndGet();
+        loadFailCount.increment();
+    }
+
+    /** Counts a successful loader call that spent {@code loadNanos} in the loader. */
+    public void recordLoad(long loadNanos) {
+        loadCount.increment();
+        recordLoadTime(loadNanos);
+    }
+
+    /** Counts a failed loader call that spent {@code loadNanos} in the loader. */
+    public void recordLoadFail(long loadNanos) {
+        loadFailCount.increment();
+        recordLoadTime(loadNanos);
+    }
+
+    private void recordLoadTime(long loadNanos) {
+        totalLoadTime.add(loadNanos);
+        loadLatency.record(loadNanos);
+    }
+
+    public void recordCoalescedLoad() {
+        coalescedLoadCount.increment();
     }
 
     public void recordExpired() {
-        expiredCount.incrementAndGet();
+        expiredCount.increment();
     }
 
     public void recordPut() {
-        putCount.incrementAndGet();
+        putCount.increment();
     }
 
     public double hitRate() {
-        long total = totalRequestCount();
-        return total == 0 ? 0.0 : (double) hitCount.get() / total;
+        return counters().hitRate();
     }
 
     public double missRate() {
-        long total = totalRequestCount();
-        return total == 0 ? 0.0 : (double) missCount.get() / total;
+        return counters().missRate();
     }
 
     public long totalRequestCount() {
-        return hitCount.get() + missCount.get();
+        return counters().totalRequestCount();
     }
 
         public long getHitCount() {
-            return hitCount.get();
+            return hitCount.sum();
         }
 
         public long getMissCount() {
-            return missCount.get();
+            return missCount.sum();
         }
 
         public long getEvictionCount() {
-            return evictionCount.get();
+            return evictionCount.sum();
         }
 
         public long getLoadCount() {
-            return loadCount.get();
+            return loadCount.sum();
         }
 
         public long getLoadFailCount() {
-            return loadFailCount.get();
+            return loadFailCount.sum();
+        }
+
+        public long getTotalLoadTimeNanos() {
+            return totalLoadTime.sum();
+        }
+
+        public double averageLoadPenalty() {
+            return counters().averageLoadPenalty();
+        }
+
+        public long getCoalescedLoadCount() {
+            return coalescedLoadCount.sum();
         }
 
         public long getExpiredCount() {
-            return expiredCount.get();
+            return expiredCount.sum();
         }
 
         public long getPutCount() {
-            return putCount.get();
+            return putCount.sum();
         }
 
     public void reset() {
-        hitCount.set(0);
-        missCount.set(0);
-        evictionCount.set(0);
-        loadCount.set(0);
-        loadFailCount.set(0);
-        expiredCount.set(0);
-        putCount.set(0);
+        synchronized(resetLock) {
+            hitCount.reset();
+            missCount.reset();
+            evictionCount.reset();
+            loadCount.reset();
+            loadFailCount.reset();
+            coalescedLoadCount.reset();
+            expiredCount.reset();
+            putCount.reset();
+            totalLoadTime.reset();
+            hitLatency.reset();
+            missLatency.reset();
+            putLatency.reset();
+            loadLatency.reset();
+            cleanupLatency.reset();
+        }
     }
 
+    /**
+     * Reads every counter once, one after another. Recording never blocks, so each counter is
+     * exact but the set is not an atomic cut: a call recorded while the snapshot is taken may be
+     * in one counter and not yet in another, e.g. a load counted whose load time isn't. Each
+     * figure derived in {@link Snapshot} uses one read of each counter, so it is off by at most
+     * the calls in flight. The snapshot never spans a {@link #reset()}.
+     */
     public Snapshot snapshot() {
-        return new Snapshot(
-                hitCount.get(),
-                missCount.get(),
-                evictionCount.get(),
-                loadCount.get(),
-                loadFailCount.get(),
-                expiredCount.get(),
-                putCount.get()
-        );
+        synchronized(resetLock) {
+            return new Snapshot(
+                    hitCount.sum(),
+                    missCount.sum(),
+                    evictionCount.sum(),
+                    loadCount.sum(),
+                    loadFailCount.sum(),
+                    coalescedLoadCount.sum(),
+                    expiredCount.sum(),
+                    putCount.sum(),
+                    totalLoadTime.sum(),
+                    hitLatency.snapshot(),
+                    missLatency.snapshot(),
+                    putLatency.snapshot(),
+                    loadLatency.snapshot(),
+                    cleanupLatency.snapshot()
+            );
+        }
+    }
+
+    // the counters of snapshot() without copying the histograms, for figures read on every JMX poll
+    private Snapshot counters() {
+        synchronized(resetLock) {
+            return new Snapshot(
+                    hitCount.sum(),
+                    missCount.sum(),
+                    evictionCount.sum(),
+                    loadCount.sum(),
+                    loadFailCount.sum(),
+                    coalescedLoadCount.sum(),
+                    expiredCount.sum(),
+                    putCount.sum(),
+                    totalLoadTime.sum(),
+                    LatencyHistogram.Snapshot.EMPTY,
+                    LatencyHistogram.Snapshot.EMPTY,
+                    LatencyHistogram.Snapshot.EMPTY,
+                    LatencyHistogram.Snapshot.EMPTY,
+                    LatencyHistogram.Snapshot.EMPTY
+            );
+        }
     }
 
     public static final class Snapshot {
@@ -109,17 +239,40 @@ public final class CacheStats {
         private final long evictionCount;
         private final long loadCount;
         private final long loadFailCount;
+        private final long coalescedLoadCount;
         private final long expiredCount;
         private final long putCount;
+        private final long totalLoadTimeNanos;
+        private final LatencyHistogram.Snapshot hitLatency;
+        private final LatencyHistogram.Snapshot missLatency;
+        private final LatencyHistogram.Snapshot putLatency;
+        private final LatencyHistogram.Snapshot loadLatency;
+        private final LatencyHistogram.Snapshot cleanupLatency;
+
+        public Snapshot(long hitCount, long missCount, long evictionCount, long loadCount, long loadFailCount, long coalescedLoadCount, long expiredCount, long putCount) {
+            this(hitCount, missCount, evictionCount, loadCount, loadFailCount, coalescedLoadCount, expiredCount, putCount, 0L,
+                    LatencyHistogram.Snapshot.EMPTY, LatencyHistogram.Snapshot.EMPTY, LatencyHistogram.Snapshot.EMPTY,
+                    LatencyHistogram.Snapshot.EMPTY, LatencyHistogram.Snapshot.EMPTY);
+        }
 
-        public Snapshot(long hitCount, long missCount, long evictionCount, long loadCount, long loadFailCount, long expiredCount, long putCount) {
+        public Snapshot(long hitCount, long missCount, long evictionCount, long loadCount, long loadFailCount, long coalescedLoadCount, long expiredCount, long putCount,
+                        long totalLoadTimeNanos,
+                        LatencyHistogram.Snapshot hitLatency, LatencyHistogram.Snapshot missLatency, LatencyHistogram.Snapshot putLatency,
+                        LatencyHistogram.Snapshot loadLatency, LatencyHistogram.Snapshot cleanupLatency) {
             this.hitCount = hitCount;
             this.missCount = missCount;
             this.evictionCount = evictionCount;
             this.loadCount = loadCount;
             this.loadFailCount = loadFailCount;
+            this.coalescedLoadCount = coalescedLoadCount;
             this.expiredCount = expiredCount;
             this.putCount = putCount;
+            this.totalLoadTimeNanos = totalLoadTimeNanos;
+            this.hitLatency = hitLatency;
+            this.missLatency = missLatency;
+            this.putLatency = putLatency;
+            this.loadLatency = loadLatency;
+            this.cleanupLatency = cleanupLatency;
         }
 
         public long getHitCount() {
@@ -142,6 +295,10 @@ public final class CacheStats {
             return loadFailCount;
         }
 
+        public long getCoalescedLoadCount() {
+            return coalescedLoadCount;
+        }
+
         public long getExpiredCount() {
             return expiredCount;
         }
@@ -150,6 +307,45 @@ public final class CacheStats {
             return putCount;
         }
 
+        /** Total time spent in loader calls, successful or not. */
+        public long getTotalLoadTimeNanos() {
+            return totalLoadTimeNanos;
+        }
+
+        /**
+         * Average time a caller waited on the loader per load, successful or not; what each
+         * hit saves when the cache is sized by backend time rather than by hit rate.
+         */
+        public double averageLoadPenalty() {
+            long loads = loadCount + loadFailCount;
+            return loads == 0 ? 0.0 : (double) totalLoadTimeNanos / loads;
+        }
+
+        /** Sampled duration of get() calls that hit. */
+        public LatencyHistogram.Snapshot getHitLatency() {
+            return hitLatency;
+        }
+
+        /** Sampled duration of get() calls that missed, up to the point the loader (if any) is called. */
+        public LatencyHistogram.Snapshot getMissLatency() {
+            return missLatency;
+        }
+
+        /** Sampled duration of put() calls, including the wait for the write lock. */
+        public LatencyHistogram.Snapshot getPutLatency() {
+            return putLatency;
+        }
+
+        /** Duration of every loader call, successful or not. */
+        public LatencyHistogram.Snapshot getLoadLatency() {
+            return loadLatency;
+        }
+
+        /** Duration of every background cleanup run. */
+        public LatencyHistogram.Snapshot getCleanupLatency() {
+            return cleanupLatency;
+        }
+
         public double hitRate() {
             long total = hitCount + missCount;
             return total == 0 ? 0.0 : (double) hitCount / total;
@@ -168,13 +364,15 @@ public final class CacheStats {
         public String toString() {
             return String.format(
                     "CacheStats.Snapshot{requests=%d, hitRate=%.2f%%, missRate=%.2f%%, " +
-                            "evictions=%d, loads=%d, loadFails=%d, expired=%d, puts=%d}",
+                            "evictions=%d, loads=%d, loadFails=%d, avgLoadPenalty=%.0fns, coalescedLoads=%d, expired=%d, puts=%d}",
                     totalRequestCount(),
                     hitRate()  * 100,
                     missRate() * 100,
                     evictionCount,
                     loadCount,
                     loadFailCount,
+                    averageLoadPenalty(),
+                    coalescedLoadCount,
                     expiredCount,
                     putCount
             );
@@ -183,6 +381,6 @@ public final class CacheStats {
 
     @Override
     public String toString() {
-        return snapshot().toString();
+        return counters().toString();
     }
 }
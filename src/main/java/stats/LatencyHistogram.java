@@ -0,0 +1,135 @@
+package stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, lock-free histogram of durations in nanoseconds. Buckets are log-linear in the
+ * style of HdrHistogram: every power of two is split into 8 equal sub-buckets, so a recorded
+ * value is reported within 12.5% of its true value. Values up to about 73 minutes are
+ * distinguished; longer ones land in the last bucket. Recording is one atomic increment.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 41;
+    static final int BUCKET_COUNT = ((MAX_EXPONENT - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        long current;
+        while(value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // another thread raised the max first; retry against its value
+        }
+    }
+
+    public void reset() {
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0L);
+        }
+        max.set(0L);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long total = 0;
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, max.get());
+    }
+
+    static int bucketOf(long value) {
+        if(value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if(exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    // largest value that maps to the bucket
+    static long highestValueIn(int bucket) {
+        if(bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /** Immutable copy of a histogram's buckets. */
+    public static final class Snapshot {
+
+        public static final Snapshot EMPTY = new Snapshot(new long[BUCKET_COUNT], 0, 0);
+
+        private final long[] counts;
+        private final long count;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.max = max;
+        }
+
+        /** Number of recorded values; sampled operations only count the sampled ones. */
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxNanos() {
+            return max;
+        }
+
+        /** Returns the value at or below which {@code percentile} percent of values fall, or 0 if empty. */
+        public long valueAtPercentile(double percentile) {
+            if(percentile < 0.0 || percentile > 100.0) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100");
+            }
+            if(count == 0) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for(int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if(seen >= rank) {
+                    return Math.min(highestValueIn(i), max);
+                }
+            }
+            return max;
+        }
+
+        public long getP50Nanos() {
+            return valueAtPercentile(50.0);
+        }
+
+        public long getP99Nanos() {
+            return valueAtPercentile(99.0);
+        }
+
+        public long getP999Nanos() {
+            return valueAtPercentile(99.9);
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + count +
+                    ", p50=" + getP50Nanos() +
+                    "ns, p99=" + getP99Nanos() +
+                    "ns, p999=" + getP999Nanos() +
+                    "ns, max=" + max +
+                    "ns}";
+        }
+    }
+}
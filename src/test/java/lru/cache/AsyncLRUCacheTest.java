@@ -0,0 +1,123 @@
+package lru.cache;
+
+import config.CacheConfig;
+import core.AsyncLRUCache;
+import loader.AsyncCacheLoader;
+import loader.CacheLoadException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AsyncLRUCache Tests")
+public class AsyncLRUCacheTest {
+    private final ExecutorService executor = AsyncCacheLoader.newVirtualThreadPerTaskExecutor();
+    private AsyncLRUCache<String, String> cache;
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) cache.shutdown();
+        executor.shutdownNow();
+    }
+
+    private AsyncLRUCache<String, String> newCache(AsyncCacheLoader<String, String> loader) {
+        return new AsyncLRUCache<>(CacheConfig.<String, String>builder()
+                .capacity(10)
+                .ttlSeconds(60)
+                .executor(executor)
+                .build(), loader);
+    }
+
+    @Test
+    @DisplayName("get loads on miss and caches the future")
+    void getLoadsAndCaches() throws Exception {
+        AtomicInteger loadCount = new AtomicInteger();
+        cache = new AsyncLRUCache<>(CacheConfig.<String, String>builder()
+                .capacity(10)
+                .executor(executor)
+                .loader(key -> {
+                    loadCount.incrementAndGet();
+                    return "loaded-" + key;
+                })
+                .build());
+
+        assertEquals("loaded-k1", cache.get("k1").get(5, TimeUnit.SECONDS));
+        assertEquals("loaded-k1", cache.get("k1").get(5, TimeUnit.SECONDS));
+        assertEquals(1, loadCount.get());
+        assertEquals(1, cache.getStats().getHitCount());
+    }
+
+    @Test
+    @DisplayName("concurrent callers share the in-flight future")
+    void concurrentCallersShareFuture() throws Exception {
+        AtomicInteger loadCount = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        cache = newCache((key, ex) -> {
+            loadCount.incrementAndGet();
+            return pending;
+        });
+
+        CompletableFuture<String> first = cache.get("k1");
+        CompletableFuture<String> second = cache.get("k1");
+        assertSame(first, second);
+        assertFalse(first.isDone());
+
+        pending.complete("value");
+        assertEquals("value", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loadCount.get());
+        assertEquals(1, cache.getStats().getCoalescedLoadCount());
+    }
+
+    @Test
+    @DisplayName("failed future is removed and not cached")
+    void failedFutureIsRemoved() {
+        AtomicInteger loadCount = new AtomicInteger();
+        cache = newCache(AsyncCacheLoader.from(key -> {
+            loadCount.incrementAndGet();
+            throw new CacheLoadException(key, "DB unavailable");
+        }));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> cache.get("k1").get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof CacheLoadException);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !cache.containsKey("k1"));
+
+        assertThrows(ExecutionException.class, () -> cache.get("k1").get(5, TimeUnit.SECONDS));
+        assertEquals(2, loadCount.get());
+        assertEquals(2, cache.getStats().getLoadFailCount());
+    }
+
+    @Test
+    @DisplayName("null result completes the future but is not cached")
+    void nullResultIsNotCached() throws Exception {
+        cache = newCache(AsyncCacheLoader.from(key -> null));
+
+        assertNull(cache.get("k1").get(5, TimeUnit.SECONDS));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> cache.size() == 0);
+    }
+
+    @Test
+    @DisplayName("refreshAfterWrite is rejected rather than ignored")
+    void rejectsRefreshAfterWrite() {
+        CacheConfig<String, String> refreshing = CacheConfig.<String, String>builder()
+                .loader(key -> "loaded-" + key)
+                .refreshAfterWrite(1, TimeUnit.MINUTES)
+                .build();
+        assertThrows(IllegalArgumentException.class, () ->
+                new AsyncLRUCache<>(refreshing, AsyncCacheLoader.from(key -> "loaded-" + key)));
+    }
+
+    @Test
+    @DisplayName("config without a loader is rejected")
+    void rejectsMissingLoader() {
+        assertThrows(NullPointerException.class, () ->
+                new AsyncLRUCache<>(CacheConfig.<String, String>builder().build()));
+    }
+}
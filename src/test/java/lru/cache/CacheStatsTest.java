@@ -5,6 +5,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import stats.CacheStats;
+import stats.LatencyHistogram;
 
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -87,6 +88,26 @@ public class CacheStatsTest {
         assertEquals(2, snapshot.getHitCount());
     }
 
+    @Test
+    @DisplayName("load time is totalled and averaged over every load")
+    void loadTimeAndPenalty() {
+        stats.recordLoad(100);
+        stats.recordLoad(300);
+        stats.recordLoadFail(200);
+
+        CacheStats.Snapshot snapshot = stats.snapshot();
+        assertEquals(2, snapshot.getLoadCount());
+        assertEquals(1, snapshot.getLoadFailCount());
+        assertEquals(600, snapshot.getTotalLoadTimeNanos());
+        assertEquals(200.0, snapshot.averageLoadPenalty(), 0.0001);
+        assertEquals(3, snapshot.getLoadLatency().getCount());
+        assertEquals(300, snapshot.getLoadLatency().getMaxNanos());
+
+        stats.reset();
+        assertEquals(0, stats.getTotalLoadTimeNanos());
+        assertEquals(0.0, stats.averageLoadPenalty(), 0.0001);
+    }
+
     @Test
     @DisplayName("snapshot toString contains rate percentages")
     void snapshotToStringContainsRatePercentages() {
@@ -97,6 +118,41 @@ public class CacheStatsTest {
         assertTrue(s.contains("missRate"));
     }
 
+    @Nested
+    @DisplayName("Latency Histograms")
+    class LatencyHistogramTest {
+
+        @Test
+        @DisplayName("percentiles are within one bucket of the true value")
+        void percentilesWithinBucketPrecision() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for(long micros = 1; micros <= 1000; micros++) {
+                histogram.record(micros * 1000);
+            }
+
+            LatencyHistogram.Snapshot snap = histogram.snapshot();
+            assertEquals(1000, snap.getCount());
+            assertEquals(1_000_000, snap.getMaxNanos());
+            assertEquals(500_000, snap.getP50Nanos(), 500_000 * 0.125);
+            assertEquals(990_000, snap.getP99Nanos(), 990_000 * 0.125);
+            assertEquals(1_000_000, snap.valueAtPercentile(100.0));
+        }
+
+        @Test
+        @DisplayName("an empty or reset histogram reports zero")
+        void emptyHistogramReportsZero() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            assertEquals(0, histogram.snapshot().getP99Nanos());
+
+            histogram.record(Long.MAX_VALUE);
+            assertEquals(Long.MAX_VALUE, histogram.snapshot().getMaxNanos());
+
+            histogram.reset();
+            assertEquals(0, histogram.snapshot().getCount());
+            assertEquals(0, histogram.snapshot().getMaxNanos());
+        }
+    }
+
     @Nested
     @DisplayName("Concurrency")
     class ConcurrencyTest {
@@ -123,5 +179,38 @@ public class CacheStatsTest {
             assertTrue(latch.await(10, TimeUnit.SECONDS));
             assertEquals(threads * opsEach, stats.getHitCount());
         }
+
+        @Test
+        @DisplayName("snapshots taken while recording are internally consistent")
+        void snapshotsWhileRecordingAreConsistent() throws InterruptedException {
+            int threads = 8;
+            int opsEach = 10_000;
+            CountDownLatch latch = new CountDownLatch(threads);
+
+            for(int t=0; t<threads; t++) {
+                new Thread(() -> {
+                    try {
+                        for(int i=0; i<opsEach; i++) {
+                            if(i % 4 == 0) stats.recordMiss(); else stats.recordHit();
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }).start();
+            }
+
+            long previous = 0;
+            while(latch.getCount() > 0) {
+                CacheStats.Snapshot snap = stats.snapshot();
+                assertEquals(snap.getHitCount() + snap.getMissCount(), snap.totalRequestCount());
+                assertEquals(1.0, snap.hitRate() + snap.missRate(), snap.totalRequestCount() == 0 ? 1.0 : 1e-9);
+                assertTrue(snap.totalRequestCount() >= previous);
+                previous = snap.totalRequestCount();
+            }
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(threads * opsEach * 3 / 4, stats.getHitCount());
+            assertEquals(threads * opsEach / 4, stats.getMissCount());
+        }
     }
 }
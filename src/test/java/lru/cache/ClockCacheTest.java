@@ -0,0 +1,121 @@
+package lru.cache;
+
+import config.CacheConfig;
+import core.ClockCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ClockCache Tests")
+public class ClockCacheTest {
+    private ClockCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ClockCache<>(CacheConfig.<String, String>builder()
+                .capacity(3)
+                .ttlSeconds(60)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("put, get and remove behave like any cache")
+    void basicOperations() {
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a").orElse(null));
+        cache.put("a", "2");
+        assertEquals("2", cache.get("a").orElse(null));
+        assertTrue(cache.remove("a"));
+        assertFalse(cache.remove("a"));
+        assertTrue(cache.get("a").isEmpty());
+    }
+
+    @Test
+    @DisplayName("referenced entry gets a second chance on eviction")
+    void referencedEntrySurvivesEviction() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+
+        cache.get("a");
+        cache.put("d", "4");
+
+        assertTrue(cache.containsKey("a"));
+        assertFalse(cache.containsKey("b"));
+        assertTrue(cache.containsKey("d"));
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("removed slots are reused before evicting")
+    void removedSlotsAreReused() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        cache.remove("b");
+        cache.put("d", "4");
+
+        assertEquals(3, cache.size());
+        assertEquals(0, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("clear empties the ring")
+    void clearEmptiesCache() {
+        for (int i = 0; i < 10; i++) cache.put("key" + i, "value");
+        cache.clear();
+        assertTrue(cache.isEmpty());
+        for (int i = 0; i < 3; i++) cache.put("key" + i, "value");
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    @DisplayName("concurrent reads and writes never exceed capacity")
+    void concurrentReadsAndWrites() throws InterruptedException {
+        ClockCache<String, String> concurrentCache = new ClockCache<>(
+                CacheConfig.<String, String>builder().capacity(100).build());
+        try {
+            int threads = 16;
+            CyclicBarrier barrier = new CyclicBarrier(threads);
+            CountDownLatch latch = new CountDownLatch(threads);
+            List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+            for (int t = 0; t < threads; t++) {
+                final int threadId = t;
+                new Thread(() -> {
+                    try {
+                        barrier.await();
+                        for (int i = 0; i < 500; i++) {
+                            concurrentCache.put("key-" + threadId + "-" + i, "value");
+                            concurrentCache.get("key-" + threadId + "-" + (i / 2));
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    } finally {
+                        latch.countDown();
+                    }
+                }).start();
+            }
+
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+            assertTrue(errors.isEmpty());
+            assertTrue(concurrentCache.size() <= 100);
+        } finally {
+            concurrentCache.shutdown();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package lru.cache;
+
+import config.CacheConfig;
+import core.CompactLRUCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompactLRUCache Tests")
+public class CompactLRUCacheTest {
+    private CompactLRUCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CompactLRUCache<>(CacheConfig.<String, String>builder()
+                .capacity(5)
+                .ttlSeconds(60)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("put, get and remove behave like any cache")
+    void basicOperations() {
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a").orElse(null));
+        cache.put("a", "2");
+        assertEquals("2", cache.get("a").orElse(null));
+        assertEquals(1, cache.size());
+        assertTrue(cache.remove("a"));
+        assertFalse(cache.remove("a"));
+        assertTrue(cache.get("a").isEmpty());
+    }
+
+    @Test
+    @DisplayName("evicts the least recently used entry and reuses its slot")
+    void evictsLeastRecentlyUsed() {
+        for (int i = 1; i <= 5; i++) cache.put("key" + i, "value" + i);
+
+        cache.get("key1");
+        cache.put("key6", "value6");
+
+        assertTrue(cache.containsKey("key1"));
+        assertFalse(cache.containsKey("key2"));
+        assertTrue(cache.containsKey("key6"));
+        assertEquals(5, cache.size());
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("buffered hits are replayed before evicting, across a full read stripe")
+    void bufferedHitsPromoteBeforeEviction() {
+        for (int i = 1; i <= 5; i++) cache.put("key" + i, "value" + i);
+
+        for (int i = 0; i < 40; i++) {
+            cache.get("key1");
+            cache.get("key3");
+        }
+        cache.remove("key5"); // a buffered hit must not revive or promote a freed slot
+        cache.put("key6", "value6");
+        cache.put("key7", "value7");
+        cache.put("key8", "value8");
+
+        assertTrue(cache.containsKey("key1"));
+        assertTrue(cache.containsKey("key3"));
+        assertFalse(cache.containsKey("key2"));
+        assertFalse(cache.containsKey("key4"));
+        assertEquals(5, cache.size());
+    }
+
+    @Test
+    @DisplayName("putAll, keys and clear")
+    void bulkOperations() {
+        Map<String, String> entries = new HashMap<>();
+        for (int i = 0; i < 5; i++) entries.put("key" + i, "value" + i);
+        cache.putAll(entries);
+
+        assertEquals(entries.keySet(), cache.keys());
+        assertEquals(entries, cache.getAll(entries.keySet()));
+
+        cache.clear();
+        assertTrue(cache.isEmpty());
+        for (int i = 0; i < 5; i++) cache.put("key" + i, "value");
+        assertEquals(5, cache.size());
+    }
+
+    @Test
+    @DisplayName("removals keep every other key reachable")
+    void removalsKeepProbeChainsIntact() {
+        CompactLRUCache<Integer, Integer> big = new CompactLRUCache<>(
+                CacheConfig.<Integer, Integer>builder().capacity(1000).build());
+        try {
+            for (int i = 0; i < 1000; i++) big.put(i, i);
+            for (int i = 0; i < 1000; i += 2) assertTrue(big.remove(i));
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i % 2 == 1, big.get(i).isPresent());
+            }
+        } finally {
+            big.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("cleanup removes expired entries in write order across several batches")
+    void cleanupPeelsExpiredEntriesInWriteOrder() {
+        AtomicLong time = new AtomicLong();
+        CompactLRUCache<Integer, Integer> expiring = new CompactLRUCache<>(CacheConfig.<Integer, Integer>builder()
+                .capacity(5000)
+                .ttl(1, TimeUnit.SECONDS)
+                .cleanupInterval(20, TimeUnit.MILLISECONDS)
+                .ticker(time::get)
+                .build());
+        try {
+            for (int i = 0; i < 3000; i++) expiring.put(i, i);
+            time.set(TimeUnit.MILLISECONDS.toNanos(500));
+            for (int i = 0; i < 100; i++) expiring.put(i, -i);
+
+            time.set(TimeUnit.MILLISECONDS.toNanos(1200));
+            await().atMost(2, TimeUnit.SECONDS).until(() -> expiring.size() == 100);
+            assertEquals(2900, expiring.getStats().getExpiredCount());
+            assertEquals(Integer.valueOf(-99), expiring.get(99).orElse(null));
+        } finally {
+            expiring.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("concurrent reads and writes never exceed capacity")
+    void concurrentReadsAndWrites() throws InterruptedException {
+        CompactLRUCache<String, String> concurrentCache = new CompactLRUCache<>(
+                CacheConfig.<String, String>builder().capacity(100).build());
+        try {
+            int threads = 16;
+            CyclicBarrier barrier = new CyclicBarrier(threads);
+            CountDownLatch latch = new CountDownLatch(threads);
+            List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+            for (int t = 0; t < threads; t++) {
+                final int threadId = t;
+                new Thread(() -> {
+                    try {
+                        barrier.await();
+                        for (int i = 0; i < 500; i++) {
+                            concurrentCache.put("key-" + threadId + "-" + i, "value-" + i);
+                            String expected = "value-" + (i / 2);
+                            concurrentCache.get("key-" + threadId + "-" + (i / 2))
+                                    .filter(value -> !value.equals(expected))
+                                    .ifPresent(value -> errors.add(new AssertionError("wrong value " + value)));
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    } finally {
+                        latch.countDown();
+                    }
+                }).start();
+            }
+
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+            assertTrue(errors.isEmpty());
+            assertTrue(concurrentCache.size() <= 100);
+            assertEquals(threads * 500, concurrentCache.getStats().getPutCount());
+        } finally {
+            concurrentCache.shutdown();
+        }
+    }
+}
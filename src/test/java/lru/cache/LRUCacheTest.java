@@ -1,13 +1,33 @@
 package lru.cache;
 
+import config.AdmissionPolicy;
 import config.CacheConfig;
+import config.Serializer;
 import core.LRUCache;
+import expiry.CachedTicker;
+import expiry.Expiry;
+import listener.RemovalCause;
 import loader.CacheLoadException;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 import stats.CacheStats;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
@@ -15,7 +35,9 @@ import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("LRUCache Tests")
@@ -181,12 +203,727 @@ public class LRUCacheTest {
         }
     }
 
+    @Nested
+    @DisplayName("Weighted Eviction")
+    class WeightedEvictionTests {
+
+        private LRUCache<String, String> weightedCache;
+
+        @BeforeEach
+        void setUp() {
+            weightedCache = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .maximumWeight(10)
+                    .weigher((key, value) -> value.length())
+                    .build());
+        }
+
+        @AfterEach
+        void tearDown() {
+            weightedCache.shutdown();
+        }
+
+        @Test
+        void evictsFromTailUntilNewEntryFits() {
+            weightedCache.put("a", "xxxx");
+            weightedCache.put("b", "xxxx");
+            weightedCache.put("c", "xxx");
+
+            assertFalse(weightedCache.containsKey("a"));
+            assertTrue(weightedCache.containsKey("b"));
+            assertTrue(weightedCache.containsKey("c"));
+            assertEquals(7, weightedCache.weightedSize());
+            assertEquals(1, weightedCache.getStats().getEvictionCount());
+        }
+
+        @Test
+        void updateReplacesEntryWeight() {
+            weightedCache.put("a", "xx");
+            weightedCache.put("a", "xxxxxx");
+            assertEquals(6, weightedCache.weightedSize());
+
+            weightedCache.remove("a");
+            assertEquals(0, weightedCache.weightedSize());
+        }
+
+        @Test
+        void refusesEntryHeavierThanBudget() {
+            weightedCache.put("small", "xxx");
+            weightedCache.put("huge", "xxxxxxxxxxx");
+
+            assertFalse(weightedCache.containsKey("huge"));
+            assertTrue(weightedCache.containsKey("small"));
+            assertEquals(3, weightedCache.weightedSize());
+        }
+
+        @Test
+        void maximumWeightRequiresWeigher() {
+            assertThrows(IllegalArgumentException.class, () ->
+                    CacheConfig.<String, String>builder().maximumWeight(10).build());
+        }
+    }
+
+    @Nested
+    @DisplayName("Off-Heap Storage")
+    class OffHeapStorageTests {
+
+        private final Serializer<String> utf8 = new Serializer<>() {
+            @Override
+            public byte[] serialize(String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String deserialize(ByteBuffer bytes) {
+                return StandardCharsets.UTF_8.decode(bytes).toString();
+            }
+        };
+
+        @Test
+        void valuesRoundTripThroughDirectMemory() {
+            LRUCache<String, String> offHeapCache = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .capacity(100)
+                    .offHeap(utf8, 1 << 20)
+                    .build());
+            try {
+                offHeapCache.put("key", "value");
+                offHeapCache.put("unicode", "h\u00e9llo w\u00f6rld");
+                assertEquals("value", offHeapCache.get("key").orElse(null));
+                assertEquals("h\u00e9llo w\u00f6rld", offHeapCache.get("unicode").orElse(null));
+
+                offHeapCache.put("key", "a much longer value than before, in a bigger size class");
+                assertEquals("a much longer value than before, in a bigger size class",
+                        offHeapCache.get("key").orElse(null));
+
+                assertTrue(offHeapCache.remove("key"));
+                assertTrue(offHeapCache.get("key").isEmpty());
+            } finally {
+                offHeapCache.shutdown();
+            }
+        }
+
+        @Test
+        void evictsLruEntriesWhenMemoryIsFull() {
+            // one 4 KiB page holds 32 chunks of 128 bytes
+            LRUCache<String, String> offHeapCache = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .capacity(100)
+                    .offHeap(utf8, 4096)
+                    .build());
+            try {
+                String value = "x".repeat(100);
+                for (int i = 0; i < 40; i++) offHeapCache.put("key" + i, value + i);
+
+                assertEquals(32, offHeapCache.size());
+                assertEquals(8, offHeapCache.getStats().getEvictionCount());
+                assertFalse(offHeapCache.containsKey("key0"));
+                assertEquals(value + 39, offHeapCache.get("key39").orElse(null));
+            } finally {
+                offHeapCache.shutdown();
+            }
+        }
+
+        @Test
+        void emptiedPagesAreReusedByOtherSizeClasses() {
+            // four 1 MiB pages, all carved into 128-byte chunks
+            int perPage = (1 << 20) / 128;
+            LRUCache<String, String> offHeapCache = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .capacity(5 * perPage)
+                    .offHeap(utf8, 4 << 20)
+                    .build());
+            try {
+                String value = "x".repeat(100);
+                for (int i = 0; i < 4 * perPage; i++) offHeapCache.put("key" + i, value);
+
+                offHeapCache.put("large", "y".repeat(1000));
+
+                // only the oldest page's worth of entries makes room, not the whole cache
+                assertEquals(3 * perPage + 1, offHeapCache.size());
+                assertEquals("y".repeat(1000), offHeapCache.get("large").orElse(null));
+                assertEquals(value, offHeapCache.get("key" + (4 * perPage - 1)).orElse(null));
+            } finally {
+                offHeapCache.shutdown();
+            }
+        }
+
+        @Test
+        void entryLookedUpBeforeClearDoesNotReadAReusedChunk() throws Exception {
+            LRUCache<String, String> offHeapCache = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .capacity(100)
+                    .offHeap(utf8, 4096)
+                    .build());
+            try {
+                offHeapCache.put("alice", "alice-secret");
+                // a get() that found the entry just before the clear, and reads its value after
+                Field mapField = LRUCache.class.getDeclaredField("map");
+                mapField.setAccessible(true);
+                Object staleEntry = ((Map<?, ?>) mapField.get(offHeapCache)).get("alice");
+                Method valueOf = LRUCache.class.getDeclaredMethod("valueOf", Class.forName("core.CacheEntry"));
+                valueOf.setAccessible(true);
+
+                offHeapCache.clear();
+                offHeapCache.put("bob", "bob-secret!!");
+
+                assertNull(valueOf.invoke(offHeapCache, staleEntry));
+                assertEquals("bob-secret!!", offHeapCache.get("bob").orElse(null));
+            } finally {
+                offHeapCache.shutdown();
+            }
+        }
+
+        @Test
+        void refusesValueLargerThanAPage() {
+            LRUCache<String, String> offHeapCache = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .capacity(100)
+                    .offHeap(utf8, 4096)
+                    .build());
+            try {
+                offHeapCache.put("small", "value");
+                offHeapCache.put("huge", "x".repeat(5000));
+
+                assertFalse(offHeapCache.containsKey("huge"));
+                assertEquals("value", offHeapCache.get("small").orElse(null));
+            } finally {
+                offHeapCache.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Insert")
+    class BatchInsertTests {
+
+        @Test
+        void putAllEvictsOverflowInLruOrder() {
+            cache.put("old1", "v");
+            cache.put("old2", "v");
+            cache.put("old3", "v");
+            cache.put("old4", "v");
+            cache.get("old1");
+
+            Map<String, String> batch = new LinkedHashMap<>();
+            batch.put("new1", "v");
+            batch.put("new2", "v");
+            batch.put("new3", "v");
+            cache.putAll(batch);
+
+            assertEquals(5, cache.size());
+            assertTrue(cache.containsKey("old1"));
+            assertFalse(cache.containsKey("old2"));
+            assertFalse(cache.containsKey("old3"));
+            assertTrue(cache.containsKey("old4"));
+            assertEquals(2, cache.getStats().getEvictionCount());
+            assertEquals(7, cache.getStats().getPutCount());
+        }
+
+        @Test
+        void putAllLargerThanCapacityKeepsMostRecentEntries() {
+            Map<String, String> batch = new LinkedHashMap<>();
+            for (int i = 0; i < 3_000; i++) batch.put("key" + i, "value" + i);
+
+            cache.putAll(batch);
+
+            assertEquals(5, cache.size());
+            for (int i = 2_995; i < 3_000; i++) {
+                assertEquals("value" + i, cache.get("key" + i).orElse(null));
+            }
+        }
+
+        @Test
+        void putAllWithNullValueChangesNothing() {
+            Map<String, String> batch = new LinkedHashMap<>();
+            batch.put("a", "1");
+            batch.put("b", null);
+
+            assertThrows(NullPointerException.class, () -> cache.putAll(batch));
+            assertTrue(cache.isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("TTL Expiry")
+    class TtlExpiryTests {
+
+        @Test
+        void backgroundCleanupRemovesExpiredEntries() {
+            LRUCache<String, String> ttlCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(100)
+                            .ttlSeconds(1)
+                            .cleanupIntervalSeconds(1)
+                            .build()
+            );
+
+            try {
+                for (int i = 0; i < 50; i++) ttlCache.put("key" + i, "value");
+
+                await().atMost(5, TimeUnit.SECONDS).until(ttlCache::isEmpty);
+                assertEquals(50, ttlCache.getStats().getExpiredCount());
+            } finally {
+                ttlCache.shutdown();
+            }
+        }
+
+        @Test
+        void subSecondTtlAndCleanupInterval() {
+            LRUCache<String, String> ttlCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(100)
+                            .ttl(300, TimeUnit.MILLISECONDS)
+                            .cleanupInterval(100, TimeUnit.MILLISECONDS)
+                            .build()
+            );
+
+            try {
+                for (int i = 0; i < 20; i++) ttlCache.put("key" + i, "value");
+                assertEquals("value", ttlCache.get("key0").orElse(null));
+
+                await().atMost(2, TimeUnit.SECONDS).until(ttlCache::isEmpty);
+                assertEquals(20, ttlCache.getStats().getExpiredCount());
+            } finally {
+                ttlCache.shutdown();
+            }
+        }
+
+        @Test
+        void fakeTickerExpiresEntriesWithoutSleeping() {
+            AtomicLong time = new AtomicLong(1_000_000L);
+            LRUCache<String, String> tickerCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(10)
+                            .ttlSeconds(60)
+                            .ticker(time::get)
+                            .build()
+            );
+
+            try {
+                tickerCache.put("key", "value");
+                time.addAndGet(TimeUnit.SECONDS.toNanos(59));
+                assertEquals("value", tickerCache.get("key").orElse(null));
+
+                time.addAndGet(TimeUnit.SECONDS.toNanos(2));
+                assertTrue(tickerCache.get("key").isEmpty());
+                assertEquals(1, tickerCache.getStats().getExpiredCount());
+            } finally {
+                tickerCache.shutdown();
+            }
+        }
+
+        @Test
+        void cleanupExpiresEntriesWhenTheTickerCrossesZero() {
+            AtomicLong time = new AtomicLong(-500_000_000L);
+            LRUCache<String, String> tickerCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(10)
+                            .ttl(200, TimeUnit.MILLISECONDS)
+                            .cleanupInterval(20, TimeUnit.MILLISECONDS)
+                            .ticker(time::get)
+                            .build()
+            );
+
+            try {
+                tickerCache.put("key", "value");
+                time.set(100_000_000L);
+                await().atMost(2, TimeUnit.SECONDS).until(tickerCache::isEmpty);
+                assertEquals(1, tickerCache.getStats().getExpiredCount());
+            } finally {
+                tickerCache.shutdown();
+            }
+        }
+
+        @Test
+        void expireAfterAccessDropsIdleEntriesAndKeepsTheTtl() {
+            AtomicLong time = new AtomicLong();
+            LRUCache<String, String> idleCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(10)
+                            .ttlSeconds(20)
+                            .expireAfterAccess(10, TimeUnit.SECONDS)
+                            .ticker(time::get)
+                            .build()
+            );
+
+            try {
+                idleCache.put("read", "value");
+                idleCache.put("idle", "value");
+
+                for (int i = 0; i < 3; i++) {
+                    time.addAndGet(TimeUnit.SECONDS.toNanos(6));
+                    assertEquals("value", idleCache.get("read").orElse(null));
+                }
+                assertFalse(idleCache.containsKey("idle"));
+
+                // read every 6s, but written 24s ago
+                time.addAndGet(TimeUnit.SECONDS.toNanos(6));
+                assertTrue(idleCache.get("read").isEmpty());
+            } finally {
+                idleCache.shutdown();
+            }
+        }
+
+        @Test
+        void cleanupPeelsIdleEntriesOffTheTail() {
+            LRUCache<String, String> idleCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(100)
+                            .expireAfterAccess(200, TimeUnit.MILLISECONDS)
+                            .cleanupInterval(50, TimeUnit.MILLISECONDS)
+                            .build()
+            );
+
+            try {
+                for (int i = 0; i < 20; i++) idleCache.put("key" + i, "value");
+
+                await().atMost(2, TimeUnit.SECONDS).until(idleCache::isEmpty);
+                assertEquals(20, idleCache.getStats().getExpiredCount());
+            } finally {
+                idleCache.shutdown();
+            }
+        }
+
+        @Test
+        void cachedTickerFollowsTheClock() {
+            try (CachedTicker ticker = new CachedTicker(1, TimeUnit.MILLISECONDS)) {
+                long first = ticker.read();
+                assertTrue(Math.abs(System.nanoTime() - first) < TimeUnit.SECONDS.toNanos(1));
+                await().atMost(2, TimeUnit.SECONDS).until(() -> ticker.read() > first);
+            }
+        }
+
+        @Test
+        void expiryGivesEachEntryItsOwnLifetime() {
+            LRUCache<String, String> expiryCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(100)
+                            .cleanupIntervalSeconds(1)
+                            .expiry((key, value) -> key.startsWith("session")
+                                    ? TimeUnit.MILLISECONDS.toNanos(200) : Expiry.NEVER)
+                            .build()
+            );
+
+            try {
+                for (int i = 0; i < 10; i++) {
+                    expiryCache.put("session" + i, "token");
+                    expiryCache.put("reference" + i, "data");
+                }
+
+                await().atMost(5, TimeUnit.SECONDS).until(() -> expiryCache.size() == 10);
+                assertTrue(expiryCache.get("session0").isEmpty());
+                assertEquals("data", expiryCache.get("reference0").orElse(null));
+                assertEquals(10, expiryCache.getStats().getExpiredCount());
+            } finally {
+                expiryCache.shutdown();
+            }
+        }
+
+        @Test
+        void expireAfterReadExtendsLifetime() throws InterruptedException {
+            LRUCache<String, String> expiryCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(100)
+                            .expiry(new Expiry<>() {
+                                @Override
+                                public long expireAfterCreate(String key, String value) {
+                                    return TimeUnit.MILLISECONDS.toNanos(300);
+                                }
+
+                                @Override
+                                public long expireAfterRead(String key, String value, long currentDuration) {
+                                    return TimeUnit.MINUTES.toNanos(1);
+                                }
+                            })
+                            .build()
+            );
+
+            try {
+                expiryCache.put("read", "value");
+                expiryCache.put("unread", "value");
+                assertTrue(expiryCache.get("read").isPresent());
+
+                Thread.sleep(500);
+
+                assertTrue(expiryCache.get("read").isPresent());
+                assertFalse(expiryCache.containsKey("unread"));
+            } finally {
+                expiryCache.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("W-TinyLFU Admission")
+    class AdmissionPolicyTests {
+
+        private LRUCache<String, String> newTinyLfuCache(int capacity) {
+            return new LRUCache<>(CacheConfig.<String, String>builder()
+                    .capacity(capacity)
+                    .ttlSeconds(60)
+                    .admissionPolicy(AdmissionPolicy.WINDOW_TINY_LFU)
+                    .build());
+        }
+
+        @Test
+        void scanDoesNotFlushFrequentlyUsedEntries() {
+            LRUCache<String, String> tinyLfu = newTinyLfuCache(100);
+            try {
+                for (int i = 0; i < 50; i++) tinyLfu.put("hot" + i, "v");
+                for (int round = 0; round < 5; round++) {
+                    for (int i = 0; i < 50; i++) tinyLfu.get("hot" + i);
+                }
+
+                for (int i = 0; i < 1_000; i++) tinyLfu.put("scan" + i, "v");
+
+                for (int i = 0; i < 50; i++) {
+                    assertTrue(tinyLfu.containsKey("hot" + i), "hot" + i + " was evicted by the scan");
+                }
+                assertEquals(100, tinyLfu.size());
+            } finally {
+                tinyLfu.shutdown();
+            }
+        }
+
+        @Test
+        void weightedCacheSizesThePolicyFromItsEntries() {
+            // the entry capacity stays at its default of 100 while the weight budget holds 2,000
+            LRUCache<String, String> tinyLfu = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .maximumWeight(2_000)
+                    .weigher((key, value) -> 1)
+                    .ttlSeconds(60)
+                    .admissionPolicy(AdmissionPolicy.WINDOW_TINY_LFU)
+                    .build());
+            try {
+                for (int i = 0; i < 1_500; i++) tinyLfu.put("hot" + i, "v");
+                for (int round = 0; round < 5; round++) {
+                    for (int i = 0; i < 1_500; i++) tinyLfu.get("hot" + i);
+                }
+
+                for (int i = 0; i < 20_000; i++) tinyLfu.put("scan" + i, "v");
+
+                int survivors = 0;
+                for (int i = 0; i < 1_500; i++) {
+                    if (tinyLfu.containsKey("hot" + i)) survivors++;
+                }
+                assertTrue(survivors >= 1_400, survivors + " of 1500 hot entries survived the scan");
+                assertEquals(2_000, tinyLfu.weightedSize());
+            } finally {
+                tinyLfu.shutdown();
+            }
+        }
+
+        @Test
+        void frequentlyRequestedNewcomerIsAdmitted() {
+            LRUCache<String, String> tinyLfu = newTinyLfuCache(10);
+            try {
+                for (int i = 0; i < 10; i++) tinyLfu.put("old" + i, "v");
+
+                for (int i = 0; i < 5; i++) {
+                    tinyLfu.put("newcomer", "v");
+                    tinyLfu.put("filler" + i, "v");
+                }
+
+                assertTrue(tinyLfu.containsKey("newcomer"));
+                assertEquals(10, tinyLfu.size());
+            } finally {
+                tinyLfu.shutdown();
+            }
+        }
+
+        @Test
+        void plainLruIsTheDefault() {
+            assertEquals(AdmissionPolicy.ALWAYS,
+                    CacheConfig.<String, String>builder().build().getAdmissionPolicy());
+        }
+    }
+
     @Nested
     @DisplayName("CacheLoader Integration")
     class CacheLoaderTests {
 
         @Test
-        void loaderInvokedOnMissAndResultCached() {
+        void loaderInvokedOnMissAndResultCached() {
+            AtomicInteger loadCount = new AtomicInteger();
+            LRUCache<String, String> loaderCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(10)
+                            .ttlSeconds(60)
+                            .loader(key -> {
+                                loadCount.incrementAndGet();
+                                return "loaded-" + key;
+                            })
+                            .build()
+            );
+
+            try {
+                assertEquals("loaded-k1", loaderCache.get("k1").orElse(null));
+                assertEquals(1, loadCount.get());
+
+                assertEquals("loaded-k1", loaderCache.get("k1").orElse(null));
+                assertEquals(1, loadCount.get());
+            } finally {
+                loaderCache.shutdown();
+            }
+        }
+
+        @Test
+        void loadPenaltyMeasuresTimeBlockedInTheLoader() {
+            LRUCache<String, String> slowCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(10)
+                            .loader(key -> {
+                                try {
+                                    Thread.sleep(20);
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                                return "loaded-" + key;
+                            })
+                            .build()
+            );
+
+            try {
+                slowCache.get("k1");
+                slowCache.get("k2");
+                slowCache.get("k1");
+
+                CacheStats.Snapshot snap = slowCache.getStats().snapshot();
+                assertEquals(2, snap.getLoadCount());
+                assertTrue(snap.getTotalLoadTimeNanos() >= TimeUnit.MILLISECONDS.toNanos(40));
+                assertTrue(snap.averageLoadPenalty() >= TimeUnit.MILLISECONDS.toNanos(20));
+                assertTrue(snap.getLoadLatency().getP50Nanos() >= TimeUnit.MILLISECONDS.toNanos(17));
+            } finally {
+                slowCache.shutdown();
+            }
+        }
+
+        @Test
+        void loaderReturningNullGivesEmptyOptional() {
+            LRUCache<String, String> nullLoaderCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(10)
+                            .ttlSeconds(60)
+                            .loader(key -> null)
+                            .build()
+            );
+
+            try {
+                assertTrue(nullLoaderCache.get("missing").isEmpty());
+            } finally {
+                nullLoaderCache.shutdown();
+            }
+        }
+
+        @Test
+        void loadExceptionReturnsEmpty() {
+            LRUCache<String, String> exceptionLoaderCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(10)
+                            .ttlSeconds(60)
+                            .loader(key -> {
+                                throw new CacheLoadException(key, "DB unavailable");
+                            })
+                            .build()
+            );
+
+            try {
+                assertTrue(exceptionLoaderCache.get("k1").isEmpty());
+                assertEquals(1, exceptionLoaderCache.getStats().getLoadFailCount());
+            } finally {
+                exceptionLoaderCache.shutdown();
+            }
+        }
+
+        @Test
+        void loaderLoadCountTracked() {
+            LRUCache<String, String> loaderCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(10)
+                            .ttlSeconds(60)
+                            .loader(key -> "value-" + key)
+                            .build()
+            );
+
+            try {
+                loaderCache.get("a");
+                loaderCache.get("b");
+                loaderCache.get("c");
+                assertEquals(3, loaderCache.getStats().getLoadCount());
+            } finally {
+                loaderCache.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Bulk Loading")
+    class BulkLoadingTests {
+
+        @Test
+        void getAllReturnsHitsWithoutLoading() {
+            cache.put("a", "1");
+            cache.put("b", "2");
+
+            Map<String, String> result = cache.getAll(List.of("a", "b", "missing"));
+
+            assertEquals(Map.of("a", "1", "b", "2"), result);
+            assertEquals(2, cache.getStats().getHitCount());
+            assertEquals(1, cache.getStats().getMissCount());
+        }
+
+        @Test
+        void bulkLoaderCalledOnceWithAllMisses() {
+            List<Set<String>> calls = new CopyOnWriteArrayList<>();
+            LRUCache<String, String> bulkCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(10)
+                            .ttlSeconds(60)
+                            .bulkLoader(keys -> {
+                                calls.add(Set.copyOf(keys));
+                                Map<String, String> loaded = new HashMap<>();
+                                for (String key : keys) {
+                                    if (!key.startsWith("absent")) loaded.put(key, "loaded-" + key);
+                                }
+                                return loaded;
+                            })
+                            .build()
+            );
+
+            try {
+                bulkCache.put("a", "1");
+
+                Map<String, String> result = bulkCache.getAll(List.of("a", "b", "c", "absent"));
+
+                assertEquals(Map.of("a", "1", "b", "loaded-b", "c", "loaded-c"), result);
+                assertEquals(List.of(Set.of("b", "c", "absent")), calls);
+                assertEquals(1, bulkCache.getStats().getLoadCount());
+                assertTrue(bulkCache.containsKey("b"));
+                assertTrue(bulkCache.containsKey("c"));
+                assertFalse(bulkCache.containsKey("absent"));
+            } finally {
+                bulkCache.shutdown();
+            }
+        }
+
+        @Test
+        void bulkLoaderFailureReturnsHitsOnly() {
+            LRUCache<String, String> bulkCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(10)
+                            .ttlSeconds(60)
+                            .bulkLoader(keys -> {
+                                throw new CacheLoadException(keys, "DB unavailable");
+                            })
+                            .build()
+            );
+
+            try {
+                bulkCache.put("a", "1");
+                assertEquals(Map.of("a", "1"), bulkCache.getAll(List.of("a", "b")));
+                assertEquals(1, bulkCache.getStats().getLoadFailCount());
+            } finally {
+                bulkCache.shutdown();
+            }
+        }
+
+        @Test
+        void fallsBackToSingleKeyLoader() {
             AtomicInteger loadCount = new AtomicInteger();
             LRUCache<String, String> loaderCache = new LRUCache<>(
                     CacheConfig.<String, String>builder()
@@ -200,72 +937,172 @@ public class LRUCacheTest {
             );
 
             try {
-                assertEquals("loaded-k1", loaderCache.get("k1").orElse(null));
-                assertEquals(1, loadCount.get());
-
-                assertEquals("loaded-k1", loaderCache.get("k1").orElse(null));
-                assertEquals(1, loadCount.get());
+                Map<String, String> result = loaderCache.getAll(List.of("a", "b", "a"));
+                assertEquals(Map.of("a", "loaded-a", "b", "loaded-b"), result);
+                assertEquals(2, loadCount.get());
             } finally {
                 loaderCache.shutdown();
             }
         }
+    }
+
+    @Nested
+    @DisplayName("Single-Flight Loading")
+    class SingleFlightLoadingTests {
+
+        private static final int THREAD_COUNT = 8;
 
         @Test
-        void loaderReturningNullGivesEmptyOptional() {
-            LRUCache<String, String> nullLoaderCache = new LRUCache<>(
+        void concurrentMissesShareOneLoad() throws InterruptedException {
+            AtomicInteger loadCount = new AtomicInteger();
+            LRUCache<String, String> loaderCache = new LRUCache<>(
                     CacheConfig.<String, String>builder()
                             .capacity(10)
                             .ttlSeconds(60)
-                            .loader(key -> null)
+                            .loader(key -> {
+                                loadCount.incrementAndGet();
+                                sleepQuietly(300);
+                                return "loaded-" + key;
+                            })
                             .build()
             );
 
             try {
-                assertTrue(nullLoaderCache.get("missing").isEmpty());
+                List<String> results = runConcurrently(() -> loaderCache.get("hot").orElse(null));
+
+                assertEquals(1, loadCount.get());
+                assertEquals(THREAD_COUNT, results.size());
+                assertTrue(results.stream().allMatch("loaded-hot"::equals));
+                assertEquals(1, loaderCache.getStats().getLoadCount());
+                assertEquals(THREAD_COUNT - 1, loaderCache.getStats().getCoalescedLoadCount());
             } finally {
-                nullLoaderCache.shutdown();
+                loaderCache.shutdown();
             }
         }
 
         @Test
-        void loadExceptionReturnsEmpty() {
-            LRUCache<String, String> exceptionLoaderCache = new LRUCache<>(
+        void waitersShareTheLoadFailure() throws InterruptedException {
+            AtomicInteger loadCount = new AtomicInteger();
+            LRUCache<String, String> loaderCache = new LRUCache<>(
                     CacheConfig.<String, String>builder()
                             .capacity(10)
                             .ttlSeconds(60)
                             .loader(key -> {
+                                loadCount.incrementAndGet();
+                                sleepQuietly(300);
                                 throw new CacheLoadException(key, "DB unavailable");
                             })
                             .build()
             );
 
             try {
-                assertTrue(exceptionLoaderCache.get("k1").isEmpty());
-                assertEquals(1, exceptionLoaderCache.getStats().getLoadFailCount());
+                List<String> results = runConcurrently(() -> loaderCache.get("hot").orElse("empty"));
+
+                assertEquals(1, loadCount.get());
+                assertTrue(results.stream().allMatch("empty"::equals));
+                assertEquals(1, loaderCache.getStats().getLoadFailCount());
+
+                // the failure is not cached: the next miss loads again
+                loaderCache.get("hot");
+                assertEquals(2, loadCount.get());
             } finally {
-                exceptionLoaderCache.shutdown();
+                loaderCache.shutdown();
+            }
+        }
+
+        private List<String> runConcurrently(java.util.function.Supplier<String> task) throws InterruptedException {
+            CyclicBarrier barrier = new CyclicBarrier(THREAD_COUNT);
+            CountDownLatch latch = new CountDownLatch(THREAD_COUNT);
+            List<String> results = new CopyOnWriteArrayList<>();
+
+            for (int t = 0; t < THREAD_COUNT; t++) {
+                new Thread(() -> {
+                    try {
+                        barrier.await();
+                        results.add(task.get());
+                    } catch (Exception ignored) {
+                    } finally {
+                        latch.countDown();
+                    }
+                }).start();
+            }
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            return results;
+        }
+
+        private void sleepQuietly(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
+    }
+
+    @Nested
+    @DisplayName("Refresh-Ahead")
+    class RefreshAheadTests {
 
         @Test
-        void loaderLoadCountTracked() {
-            LRUCache<String, String> loaderCache = new LRUCache<>(
+        void staleReadReturnsOldValueAndReloadsInBackground() {
+            AtomicInteger version = new AtomicInteger();
+            LRUCache<String, String> refreshCache = new LRUCache<>(
                     CacheConfig.<String, String>builder()
                             .capacity(10)
                             .ttlSeconds(60)
-                            .loader(key -> "value-" + key)
+                            .refreshAfterWrite(50, TimeUnit.MILLISECONDS)
+                            .loader(key -> key + "-v" + version.incrementAndGet())
                             .build()
             );
 
             try {
-                loaderCache.get("a");
-                loaderCache.get("b");
-                loaderCache.get("c");
-                assertEquals(3, loaderCache.getStats().getLoadCount());
+                assertEquals("key-v1", refreshCache.get("key").orElse(null));
+
+                await().atMost(2, TimeUnit.SECONDS).untilAsserted(() ->
+                        assertEquals("key-v2", refreshCache.get("key").orElse(null)));
+                assertEquals(1, refreshCache.getStats().getMissCount());
             } finally {
-                loaderCache.shutdown();
+                refreshCache.shutdown();
+            }
+        }
+
+        @Test
+        void failedRefreshKeepsOldValue() throws InterruptedException {
+            AtomicInteger loadCount = new AtomicInteger();
+            LRUCache<String, String> refreshCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(10)
+                            .ttlSeconds(60)
+                            .refreshAfterWrite(50, TimeUnit.MILLISECONDS)
+                            .loader(key -> {
+                                if(loadCount.incrementAndGet() > 1) {
+                                    throw new CacheLoadException(key, "backend down");
+                                }
+                                return "original";
+                            })
+                            .build()
+            );
+
+            try {
+                refreshCache.get("key");
+                Thread.sleep(100);
+
+                assertEquals("original", refreshCache.get("key").orElse(null));
+                await().atMost(2, TimeUnit.SECONDS).until(() ->
+                        refreshCache.getStats().getLoadFailCount() >= 1);
+                assertEquals("original", refreshCache.get("key").orElse(null));
+            } finally {
+                refreshCache.shutdown();
             }
         }
+
+        @Test
+        void refreshRequiresLoader() {
+            assertThrows(IllegalArgumentException.class, () -> CacheConfig.<String, String>builder()
+                    .refreshAfterWrite(1, TimeUnit.SECONDS)
+                    .build());
+        }
     }
 
     @Nested
@@ -333,6 +1170,335 @@ public class LRUCacheTest {
             assertEquals(0, cache.getStats().getMissCount());
             assertEquals(0, cache.getStats().getPutCount());
         }
+
+        @Test
+        void latenciesAreSampledIntoHistograms() {
+            LRUCache<String, String> loading = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(10)
+                            .loader(key -> "loaded-" + key)
+                            .build()
+            );
+
+            try {
+                loading.get("a");
+                for (int i = 0; i < 2_000; i++) {
+                    loading.get("a");
+                    loading.put("b", "value");
+                }
+
+                CacheStats.Snapshot snap = loading.getStats().snapshot();
+                assertEquals(1, snap.getLoadLatency().getCount());
+                assertTrue(snap.getHitLatency().getCount() > 0);
+                assertTrue(snap.getHitLatency().getCount() < 2_000);
+                assertTrue(snap.getPutLatency().getCount() > 0);
+                assertTrue(snap.getHitLatency().getP50Nanos() <= snap.getHitLatency().getP99Nanos());
+                assertTrue(snap.getHitLatency().getP999Nanos() <= snap.getHitLatency().getMaxNanos());
+            } finally {
+                loading.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("JMX Management")
+    class JmxManagementTests {
+
+        private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        @Test
+        void mbeanExposesStatsAndResizesTheCache() throws Exception {
+            LRUCache<String, String> managed = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .name("jmx-resize")
+                    .capacity(10)
+                    .build());
+            ObjectName name = new ObjectName("lru.cache:type=LRUCache,name=" + ObjectName.quote("jmx-resize"));
+
+            try {
+                for (int i = 0; i < 10; i++) managed.put("key" + i, "value");
+                managed.get("key9");
+                managed.get("missing");
+
+                assertEquals(10L, server.getAttribute(name, "Size"));
+                assertEquals(10, server.getAttribute(name, "Capacity"));
+                assertEquals(1L, server.getAttribute(name, "HitCount"));
+                assertEquals(1L, server.getAttribute(name, "MissCount"));
+
+                server.setAttribute(name, new Attribute("Capacity", 4));
+
+                assertEquals(4, managed.capacity());
+                assertEquals(4, managed.size());
+                assertTrue(managed.containsKey("key9"));
+                assertEquals(6L, server.getAttribute(name, "EvictionCount"));
+            } finally {
+                managed.shutdown();
+            }
+            assertFalse(server.isRegistered(name));
+        }
+
+        @Test
+        void mbeanChangesTheTtlOfCachedEntries() throws Exception {
+            AtomicLong time = new AtomicLong();
+            LRUCache<String, String> managed = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .name("jmx-ttl")
+                    .capacity(10)
+                    .ttl(10, TimeUnit.MINUTES)
+                    .ticker(time::get)
+                    .build());
+            ObjectName name = new ObjectName("lru.cache:type=LRUCache,name=" + ObjectName.quote("jmx-ttl"));
+
+            try {
+                managed.put("key", "value");
+                time.addAndGet(TimeUnit.SECONDS.toNanos(30));
+                assertEquals(600_000L, server.getAttribute(name, "TtlMillis"));
+
+                server.setAttribute(name, new Attribute("TtlMillis", 20_000L));
+
+                assertEquals(TimeUnit.SECONDS.toNanos(20), managed.ttlNanos());
+                assertTrue(managed.get("key").isEmpty());
+            } finally {
+                managed.shutdown();
+            }
+        }
+
+        @Test
+        void nameWithObjectNameSyntaxIsQuoted() throws Exception {
+            LRUCache<String, String> managed = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .name("users,region=eu:*")
+                    .ttl(500, TimeUnit.MICROSECONDS)
+                    .build());
+            ObjectName name = new ObjectName("lru.cache:type=LRUCache,name=" + ObjectName.quote("users,region=eu:*"));
+
+            try {
+                assertTrue(server.isRegistered(name));
+                assertEquals(1L, server.getAttribute(name, "TtlMillis"));
+            } finally {
+                managed.shutdown();
+            }
+            assertFalse(server.isRegistered(name));
+        }
+
+        @Test
+        void ttlReadsAsMinusOneWhenAnExpiryOverridesIt() throws Exception {
+            LRUCache<String, String> managed = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .name("jmx-expiry")
+                    .expiry((key, value) -> Expiry.NEVER)
+                    .build());
+            ObjectName name = new ObjectName("lru.cache:type=LRUCache,name=" + ObjectName.quote("jmx-expiry"));
+
+            try {
+                assertEquals(-1L, server.getAttribute(name, "TtlMillis"));
+                assertThrows(IllegalStateException.class, () -> managed.setTtl(1, TimeUnit.SECONDS));
+            } finally {
+                managed.shutdown();
+            }
+        }
+
+        @Test
+        void weightedCachesRejectCapacityChanges() {
+            LRUCache<String, String> weighted = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .maximumWeight(100)
+                    .weigher((key, value) -> value.length())
+                    .build());
+            try {
+                assertThrows(IllegalStateException.class, () -> weighted.setCapacity(10));
+            } finally {
+                weighted.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Removal Listener")
+    class RemovalListenerTests {
+
+        @Test
+        void eachKindOfRemovalIsReportedWithItsCause() {
+            AtomicLong time = new AtomicLong();
+            List<String> removals = new CopyOnWriteArrayList<>();
+            LRUCache<String, String> notifying = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .capacity(2)
+                    .ttlSeconds(60)
+                    .ticker(time::get)
+                    .executor(Runnable::run)
+                    .removalListener((key, value, cause) -> removals.add(key + "=" + value + ":" + cause))
+                    .build());
+
+            try {
+                notifying.put("a", "1");
+                notifying.put("a", "2");
+                notifying.put("b", "1");
+                notifying.put("c", "1");
+                notifying.remove("b");
+                time.addAndGet(TimeUnit.SECONDS.toNanos(61));
+                assertTrue(notifying.get("c").isEmpty());
+                notifying.put("d", "1");
+                notifying.clear();
+
+                assertEquals(List.of("a=1:REPLACED", "a=2:SIZE", "b=1:EXPLICIT", "c=1:EXPIRED", "d=1:CLEARED"), removals);
+                assertTrue(RemovalCause.SIZE.wasEvicted());
+                assertFalse(RemovalCause.REPLACED.wasEvicted());
+            } finally {
+                notifying.shutdown();
+            }
+        }
+
+        @Test
+        void listenerRunsAfterTheLockIsReleased() {
+            AtomicReference<LRUCache<String, String>> holder = new AtomicReference<>();
+            AtomicReference<Boolean> writableFromOtherThread = new AtomicReference<>();
+            LRUCache<String, String> notifying = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .capacity(10)
+                    .executor(Runnable::run)
+                    .removalListener((key, value, cause) -> {
+                        Thread writer = new Thread(() -> holder.get().put("from-listener", value));
+                        writer.start();
+                        try {
+                            writer.join(TimeUnit.SECONDS.toMillis(2));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        writableFromOtherThread.set(!writer.isAlive());
+                    })
+                    .build());
+            holder.set(notifying);
+
+            try {
+                notifying.put("key", "value");
+                notifying.remove("key");
+
+                assertEquals(Boolean.TRUE, writableFromOtherThread.get());
+                assertEquals("value", notifying.get("from-listener").orElse(null));
+            } finally {
+                notifying.shutdown();
+            }
+        }
+
+        @Test
+        void failingListenerDoesNotAffectTheCache() {
+            AtomicInteger calls = new AtomicInteger();
+            LRUCache<String, String> notifying = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .capacity(10)
+                    .executor(Runnable::run)
+                    .removalListener((key, value, cause) -> {
+                        calls.incrementAndGet();
+                        throw new IllegalStateException("listener failure");
+                    })
+                    .build());
+
+            try {
+                notifying.put("key", "1");
+                notifying.put("key", "2");
+                notifying.remove("key");
+
+                assertEquals(2, calls.get());
+                assertTrue(notifying.get("key").isEmpty());
+                notifying.put("key", "3");
+                assertEquals("3", notifying.get("key").orElse(null));
+            } finally {
+                notifying.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Flight Recorder Events")
+    class FlightRecorderTests {
+
+        @Test
+        void loadEvictionAndCleanupEventsAreRecorded() throws Exception {
+            Path dump = Files.createTempFile("lru-cache", ".jfr");
+            LRUCache<String, String> recorded = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .name("jfr-events")
+                    .capacity(2)
+                    .ttl(50, TimeUnit.MILLISECONDS)
+                    .cleanupInterval(50, TimeUnit.MILLISECONDS)
+                    .loader(key -> "loaded-" + key)
+                    .build());
+
+            try (Recording recording = new Recording()) {
+                recording.enable("lru.cache.CacheLoad").withThreshold(Duration.ZERO);
+                recording.enable("lru.cache.CacheEvictionBurst").withThreshold(Duration.ZERO);
+                recording.enable("lru.cache.CacheCleanupSweep").withThreshold(Duration.ZERO);
+                recording.start();
+
+                recorded.get("a");
+                recorded.put("b", "1");
+                recorded.put("c", "2");
+                await().atMost(2, TimeUnit.SECONDS).until(recorded::isEmpty);
+
+                recording.stop();
+                recording.dump(dump);
+            } finally {
+                recorded.shutdown();
+            }
+
+            try {
+                List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+                RecordedEvent load = events.stream()
+                        .filter(e -> e.getEventType().getName().equals("lru.cache.CacheLoad"))
+                        .findFirst().orElseThrow();
+                assertEquals("jfr-events", load.getString("cacheName"));
+                assertEquals("a".hashCode(), load.getInt("keyHash"));
+                assertTrue(load.getBoolean("success"));
+
+                RecordedEvent burst = events.stream()
+                        .filter(e -> e.getEventType().getName().equals("lru.cache.CacheEvictionBurst"))
+                        .findFirst().orElseThrow();
+                assertEquals(1, burst.getInt("evicted"));
+
+                assertTrue(events.stream()
+                        .filter(e -> e.getEventType().getName().equals("lru.cache.CacheCleanupSweep"))
+                        .anyMatch(e -> e.getInt("removed") > 0));
+            } finally {
+                Files.deleteIfExists(dump);
+            }
+        }
+
+        @Test
+        void contendedReadLockWaitIsRecorded() throws Exception {
+            Path dump = Files.createTempFile("lru-cache", ".jfr");
+            CountDownLatch weighing = new CountDownLatch(1);
+            LRUCache<String, String> recorded = new LRUCache<>(CacheConfig.<String, String>builder()
+                    .name("jfr-lock-wait")
+                    .maximumWeight(100)
+                    .weigher((key, value) -> {
+                        if (key.equals("slow")) {
+                            weighing.countDown();
+                            try {
+                                Thread.sleep(100);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                        return 1;
+                    })
+                    .build());
+
+            try (Recording recording = new Recording()) {
+                recording.enable("lru.cache.CacheLockWait").withThreshold(Duration.ZERO);
+                recording.start();
+
+                Thread writer = new Thread(() -> recorded.put("slow", "v"));
+                writer.start();
+                weighing.await();
+                recorded.containsKey("other");
+                writer.join();
+
+                recording.stop();
+                recording.dump(dump);
+            } finally {
+                recorded.shutdown();
+            }
+
+            try {
+                assertTrue(RecordingFile.readAllEvents(dump).stream()
+                        .filter(e -> e.getEventType().getName().equals("lru.cache.CacheLockWait"))
+                        .anyMatch(e -> e.getString("operation").equals("containsKey") && !e.getBoolean("writeLock")));
+            } finally {
+                Files.deleteIfExists(dump);
+            }
+        }
     }
 
     @Nested
@@ -380,5 +1546,52 @@ public class LRUCacheTest {
                 concurrentCache.shutdown();
             }
         }
+
+        @Test
+        void concurrentReadsKeepLruListConsistent() throws InterruptedException {
+            LRUCache<String, String> concurrentCache = new LRUCache<>(
+                    CacheConfig.<String, String>builder()
+                            .capacity(50)
+                            .ttlSeconds(60)
+                            .build()
+            );
+
+            try {
+                for (int i = 0; i < 50; i++) concurrentCache.put("key-" + i, "value");
+
+                int readers = 32;
+                CyclicBarrier barrier = new CyclicBarrier(readers);
+                CountDownLatch latch = new CountDownLatch(readers);
+                List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+                for (int t = 0; t < readers; t++) {
+                    new Thread(() -> {
+                        try {
+                            barrier.await();
+                            for (int i = 0; i < OPS_PER_THREAD * 4; i++) {
+                                concurrentCache.get("key-" + (i % 50));
+                            }
+                        } catch (Throwable e) {
+                            errors.add(e);
+                        } finally {
+                            latch.countDown();
+                        }
+                    }).start();
+                }
+
+                assertTrue(latch.await(30, TimeUnit.SECONDS));
+                assertTrue(errors.isEmpty());
+
+                // a corrupted list would fail to evict every old entry here
+                for (int i = 0; i < 50; i++) concurrentCache.put("new-" + i, "value");
+                assertEquals(50, concurrentCache.size());
+                for (int i = 0; i < 50; i++) {
+                    assertTrue(concurrentCache.containsKey("new-" + i));
+                    assertFalse(concurrentCache.containsKey("key-" + i));
+                }
+            } finally {
+                concurrentCache.shutdown();
+            }
+        }
     }
 }
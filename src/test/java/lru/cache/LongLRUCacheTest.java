@@ -0,0 +1,195 @@
+package lru.cache;
+
+import config.AdmissionPolicy;
+import config.CacheConfig;
+import core.LongLRUCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LongLRUCache Tests")
+public class LongLRUCacheTest {
+    private LongLRUCache<String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new LongLRUCache<>(CacheConfig.<Long, String>builder()
+                .capacity(5)
+                .ttlSeconds(60)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("put, get and remove by primitive key")
+    void basicOperations() {
+        cache.put(1L, "one");
+        cache.put(-1L, "minus one");
+        assertEquals("one", cache.get(1L));
+        assertEquals("minus one", cache.get(-1L));
+        assertNull(cache.get(2L));
+
+        cache.put(1L, "uno");
+        assertEquals("uno", cache.get(1L));
+        assertEquals(2, cache.size());
+
+        assertTrue(cache.remove(1L));
+        assertFalse(cache.remove(1L));
+        assertNull(cache.get(1L));
+        assertEquals(2, cache.getStats().getMissCount());
+    }
+
+    @Test
+    @DisplayName("evicts the least recently used key")
+    void evictsLeastRecentlyUsed() {
+        for (long i = 1; i <= 5; i++) cache.put(i, "value" + i);
+
+        cache.get(1L);
+        cache.put(6L, "value6");
+
+        assertTrue(cache.containsKey(1L));
+        assertFalse(cache.containsKey(2L));
+        assertTrue(cache.containsKey(6L));
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("buffered hits are replayed before evicting, across a full read stripe")
+    void bufferedHitsPromoteBeforeEviction() {
+        for (long i = 1; i <= 5; i++) cache.put(i, "value" + i);
+
+        for (int i = 0; i < 40; i++) {
+            cache.get(1L);
+            cache.get(3L);
+        }
+        cache.remove(5L); // a buffered hit must not revive or promote a freed slot
+        cache.put(6L, "value6");
+        cache.put(7L, "value7");
+        cache.put(8L, "value8");
+
+        assertTrue(cache.containsKey(1L));
+        assertTrue(cache.containsKey(3L));
+        assertFalse(cache.containsKey(2L));
+        assertFalse(cache.containsKey(4L));
+        assertEquals(5, cache.size());
+    }
+
+    @Test
+    @DisplayName("removals keep every other key reachable")
+    void removalsKeepProbeChainsIntact() {
+        LongLRUCache<Long> big = new LongLRUCache<>(CacheConfig.<Long, Long>builder().capacity(1000).build());
+        try {
+            for (long i = 0; i < 1000; i++) big.put(i * 1024, i);
+            for (long i = 0; i < 1000; i += 2) assertTrue(big.remove(i * 1024));
+            for (long i = 0; i < 1000; i++) {
+                assertEquals(i % 2 == 0 ? null : Long.valueOf(i), big.get(i * 1024));
+            }
+            assertEquals(500, big.size());
+        } finally {
+            big.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("loader fills misses")
+    void loaderFillsMisses() {
+        LongLRUCache<String> loading = new LongLRUCache<>(CacheConfig.<Long, String>builder()
+                .capacity(10)
+                .loader(key -> "loaded-" + key)
+                .build());
+        try {
+            assertEquals("loaded-42", loading.get(42L));
+            assertTrue(loading.containsKey(42L));
+            assertEquals(1, loading.getStats().getLoadCount());
+        } finally {
+            loading.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("rejects options it does not support")
+    void rejectsUnsupportedOptions() {
+        assertThrows(IllegalArgumentException.class, () -> new LongLRUCache<>(
+                CacheConfig.<Long, String>builder().admissionPolicy(AdmissionPolicy.WINDOW_TINY_LFU).build()));
+    }
+
+    @Test
+    @DisplayName("cleanup removes expired entries in write order across several batches")
+    void cleanupPeelsExpiredEntriesInWriteOrder() {
+        AtomicLong time = new AtomicLong();
+        LongLRUCache<String> expiring = new LongLRUCache<>(CacheConfig.<Long, String>builder()
+                .capacity(5000)
+                .ttl(1, TimeUnit.SECONDS)
+                .cleanupInterval(20, TimeUnit.MILLISECONDS)
+                .ticker(time::get)
+                .build());
+        try {
+            for (long i = 0; i < 3000; i++) expiring.put(i, "old");
+            time.set(TimeUnit.MILLISECONDS.toNanos(500));
+            for (long i = 0; i < 100; i++) expiring.put(i, "new");
+
+            time.set(TimeUnit.MILLISECONDS.toNanos(1200));
+            await().atMost(2, TimeUnit.SECONDS).until(() -> expiring.size() == 100);
+            assertEquals(2900, expiring.getStats().getExpiredCount());
+            assertEquals("new", expiring.get(99L));
+        } finally {
+            expiring.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("concurrent reads and writes never exceed capacity")
+    void concurrentReadsAndWrites() throws InterruptedException {
+        LongLRUCache<String> concurrentCache = new LongLRUCache<>(
+                CacheConfig.<Long, String>builder().capacity(100).build());
+        try {
+            int threads = 16;
+            CyclicBarrier barrier = new CyclicBarrier(threads);
+            CountDownLatch latch = new CountDownLatch(threads);
+            List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+            for (int t = 0; t < threads; t++) {
+                final long threadId = t;
+                new Thread(() -> {
+                    try {
+                        barrier.await();
+                        for (long i = 0; i < 500; i++) {
+                            long key = threadId * 1000 + i;
+                            concurrentCache.put(key, "value" + key);
+                            String value = concurrentCache.get(threadId * 1000 + i / 2);
+                            if (value != null && !value.equals("value" + (threadId * 1000 + i / 2))) {
+                                throw new AssertionError("wrong value " + value);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    } finally {
+                        latch.countDown();
+                    }
+                }).start();
+            }
+
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+            assertTrue(errors.isEmpty());
+            assertTrue(concurrentCache.size() <= 100);
+            assertEquals(threads * 500, concurrentCache.getStats().getPutCount());
+        } finally {
+            concurrentCache.shutdown();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package lru.cache;
+
+import config.CacheConfig;
+import core.SegmentedLRUCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SegmentedLRUCache Tests")
+public class SegmentedLRUCacheTest {
+    private SegmentedLRUCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SegmentedLRUCache<>(CacheConfig.<String, String>builder()
+                .capacity(64)
+                .ttlSeconds(60)
+                .build(), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("put and get route to the same segment")
+    void putAndGetReturnsValue() {
+        cache.put("key1", "value1");
+        assertEquals("value1", cache.get("key1").orElse(null));
+        assertTrue(cache.containsKey("key1"));
+        assertTrue(cache.remove("key1"));
+        assertFalse(cache.containsKey("key1"));
+    }
+
+    @Test
+    @DisplayName("size never exceeds total capacity")
+    void sizeNeverExceedsCapacity() {
+        for (int i = 0; i < 1000; i++) cache.put("key" + i, "value" + i);
+        assertTrue(cache.size() <= 64);
+        assertTrue(cache.getStats().getEvictionCount() >= 1000 - 64);
+    }
+
+    @Test
+    @DisplayName("segment count is capped by capacity")
+    void segmentCountCappedByCapacity() {
+        SegmentedLRUCache<String, String> small = new SegmentedLRUCache<>(
+                CacheConfig.<String, String>builder().capacity(3).build(), 16);
+        try {
+            assertEquals(2, small.segmentCount());
+            for (int i = 0; i < 100; i++) small.put("key" + i, "value");
+            assertTrue(small.size() <= 3);
+        } finally {
+            small.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("weighted cache keeps every segment share at least the heaviest admissible entry")
+    void weightedSegmentsAdmitEntriesUpToTheEntryLimit() {
+        SegmentedLRUCache<String, String> whole = new SegmentedLRUCache<>(CacheConfig.<String, String>builder()
+                .maximumWeight(1000)
+                .weigher((key, value) -> value.length())
+                .build(), 8);
+        SegmentedLRUCache<String, String> limited = new SegmentedLRUCache<>(CacheConfig.<String, String>builder()
+                .maximumWeight(1000)
+                .maximumEntryWeight(125)
+                .weigher((key, value) -> value.length())
+                .build(), 8);
+        try {
+            assertEquals(1, whole.segmentCount());
+            whole.put("heavy", "x".repeat(400));
+            assertTrue(whole.containsKey("heavy"));
+
+            assertEquals(8, limited.segmentCount());
+            limited.put("heavy", "x".repeat(400));
+            limited.put("light", "x".repeat(125));
+            assertFalse(limited.containsKey("heavy"));
+            assertTrue(limited.containsKey("light"));
+        } finally {
+            whole.shutdown();
+            limited.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("maximumEntryWeight must not exceed maximumWeight")
+    void rejectsEntryLimitAboveBudget() {
+        assertThrows(IllegalArgumentException.class, () -> CacheConfig.<String, String>builder()
+                .maximumWeight(100)
+                .maximumEntryWeight(101)
+                .weigher((key, value) -> 1)
+                .build());
+    }
+
+    @Test
+    @DisplayName("keys, size, clear and stats aggregate across segments")
+    void aggregatesAcrossSegments() {
+        Map<String, String> entries = new HashMap<>();
+        for (int i = 0; i < 20; i++) entries.put("key" + i, "value" + i);
+        cache.putAll(entries);
+
+        assertEquals(20, cache.size());
+        assertEquals(entries.keySet(), cache.keys());
+
+        cache.get("key1");
+        cache.get("missing");
+        assertEquals(1, cache.getStats().getHitCount());
+        assertEquals(1, cache.getStats().getMissCount());
+        assertEquals(20, cache.getStats().getPutCount());
+
+        cache.clear();
+        assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    @DisplayName("getAll issues one bulk load across all segments")
+    void getAllIssuesOneBulkLoad() {
+        AtomicInteger calls = new AtomicInteger();
+        SegmentedLRUCache<String, String> bulkCache = new SegmentedLRUCache<>(
+                CacheConfig.<String, String>builder()
+                        .capacity(64)
+                        .bulkLoader(keys -> {
+                            calls.incrementAndGet();
+                            Map<String, String> loaded = new HashMap<>();
+                            keys.forEach(key -> loaded.put(key, "loaded-" + key));
+                            return loaded;
+                        })
+                        .build(), 4);
+        try {
+            List<String> keys = IntStream.range(0, 20).mapToObj(i -> "key" + i).toList();
+
+            Map<String, String> result = bulkCache.getAll(keys);
+
+            assertEquals(20, result.size());
+            assertEquals(1, calls.get());
+            assertEquals(20, bulkCache.size());
+            assertEquals(20, bulkCache.getAll(keys).size());
+            assertEquals(1, calls.get());
+        } finally {
+            bulkCache.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("rejects non-positive segment count")
+    void rejectsNonPositiveSegmentCount() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new SegmentedLRUCache<>(CacheConfig.<String, String>builder().build(), 0));
+    }
+
+    @Test
+    @DisplayName("concurrent puts are thread safe")
+    void concurrentPutsAreThreadSafe() throws InterruptedException {
+        int threads = 16;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            final int threadId = t;
+            new Thread(() -> {
+                try {
+                    barrier.await();
+                    for (int i = 0; i < 500; i++) {
+                        cache.put("key-" + threadId + "-" + i, "value");
+                        cache.get("key-" + threadId + "-" + (i / 2));
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                } finally {
+                    latch.countDown();
+                }
+            }).start();
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertTrue(errors.isEmpty());
+        assertTrue(cache.size() <= 64);
+        assertEquals(threads * 500, cache.getStats().getPutCount());
+    }
+}